@@ -0,0 +1,89 @@
+package de.apnmt.payment.benchmark;
+
+import java.time.LocalDateTime;
+
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.ApnmtEventType;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.domain.enumeration.Currency;
+import de.apnmt.payment.common.domain.enumeration.Interval;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Objects shared by the benchmarks, shaped like the data of the hot paths.
+ */
+final class BenchmarkFixtures {
+
+    static final int ITEMS_PER_SUBSCRIPTION = 3;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a context holding the MapStruct mappers, wired as in the application.
+     *
+     * @return the started context.
+     */
+    static AnnotationConfigApplicationContext mapperContext() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.scan("de.apnmt.payment.common.service.mapper");
+        context.refresh();
+        return context;
+    }
+
+    static Product product() {
+        Product product = new Product();
+        product.setId("prod_benchmark");
+        product.setName("Premium");
+        product.setDescription("Premium plan with all features");
+        return product;
+    }
+
+    static Price price(Product product, int index) {
+        Price price = new Price();
+        price.setId("price_benchmark_" + index);
+        price.setNickname("Monthly " + index);
+        price.setAmount(4900L + index);
+        price.setCurrency(Currency.eur);
+        price.setInterval(Interval.month);
+        price.setProduct(product);
+        return price;
+    }
+
+    static Customer customer() {
+        Customer customer = new Customer();
+        customer.setId("cus_benchmark");
+        customer.setOrganizationId(42L);
+        return customer;
+    }
+
+    static Subscription subscription() {
+        Product product = product();
+        Subscription subscription = new Subscription().expirationDate(LocalDateTime.of(2026, 10, 18, 12, 0));
+        subscription.setId("sub_benchmark");
+        subscription.setCustomer(customer());
+        for (int i = 0; i < ITEMS_PER_SUBSCRIPTION; i++) {
+            SubscriptionItem item = new SubscriptionItem();
+            item.setId("si_benchmark_" + i);
+            item.setQuantity(1);
+            item.setPrice(price(product, i));
+            subscription.addSubscriptionItem(item);
+        }
+        return subscription;
+    }
+
+    static ApnmtEvent<OrganizationActivationEventDTO> activationEvent() {
+        OrganizationActivationEventDTO value = new OrganizationActivationEventDTO();
+        value.setOrganizationId(42L);
+        value.setActive(false);
+        ApnmtEvent<OrganizationActivationEventDTO> event = new ApnmtEvent<>();
+        event.setType(ApnmtEventType.organizationActivationChanged);
+        event.setValue(value);
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package de.apnmt.payment.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.service.dto.PriceDTO;
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+import de.apnmt.payment.common.service.mapper.PriceMapper;
+import de.apnmt.payment.common.service.mapper.SubscriptionMapper;
+import de.apnmt.payment.config.JacksonConfiguration;
+import de.apnmt.payment.service.dto.CatalogProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON serialization of the DTOs with the Jackson modules of {@link JacksonConfiguration}, as done for the REST
+ * responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoSerializationBenchmark {
+
+    private static final int CATALOG_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+
+    private SubscriptionDTO subscription;
+
+    private byte[] subscriptionJson;
+
+    private List<CatalogProductDTO> catalog;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        JacksonConfiguration configuration = new JacksonConfiguration();
+        this.objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(
+                configuration.javaTimeModule(),
+                configuration.jdk8TimeModule(),
+                configuration.hibernate5Module(),
+                configuration.problemModule(),
+                configuration.constraintViolationProblemModule()
+            )
+            .build();
+        try (AnnotationConfigApplicationContext context = BenchmarkFixtures.mapperContext()) {
+            this.subscription = context.getBean(SubscriptionMapper.class).toDto(BenchmarkFixtures.subscription());
+            PriceMapper priceMapper = context.getBean(PriceMapper.class);
+            this.catalog = new ArrayList<>(CATALOG_SIZE);
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                Product product = BenchmarkFixtures.product();
+                product.setId("prod_benchmark_" + i);
+                CatalogProductDTO catalogProduct = new CatalogProductDTO();
+                catalogProduct.setId(product.getId());
+                catalogProduct.setName(product.getName());
+                catalogProduct.setDescription(product.getDescription());
+                List<PriceDTO> prices = new ArrayList<>();
+                for (int j = 0; j < BenchmarkFixtures.ITEMS_PER_SUBSCRIPTION; j++) {
+                    prices.add(priceMapper.toDto(BenchmarkFixtures.price(product, j)));
+                }
+                catalogProduct.setPrices(prices);
+                this.catalog.add(catalogProduct);
+            }
+        }
+        this.subscriptionJson = this.objectMapper.writeValueAsBytes(this.subscription);
+    }
+
+    @Benchmark
+    public byte[] serializeSubscription() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.subscription);
+    }
+
+    @Benchmark
+    public SubscriptionDTO deserializeSubscription() throws IOException {
+        return this.objectMapper.readValue(this.subscriptionJson, SubscriptionDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCatalog() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.catalog);
+    }
+}
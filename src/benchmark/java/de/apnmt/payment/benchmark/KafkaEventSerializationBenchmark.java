@@ -0,0 +1,45 @@
+package de.apnmt.payment.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Serialization of the organization activation events sent to Kafka.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KafkaEventSerializationBenchmark {
+
+    private JsonSerializer<ApnmtEvent<OrganizationActivationEventDTO>> serializer;
+
+    private ApnmtEvent<OrganizationActivationEventDTO> event;
+
+    @Setup
+    public void setUp() {
+        this.serializer = new JsonSerializer<>();
+        this.event = BenchmarkFixtures.activationEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.serializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeActivationEvent() {
+        return this.serializer.serialize(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, this.event);
+    }
+}
@@ -0,0 +1,84 @@
+package de.apnmt.payment.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.service.dto.PriceDTO;
+import de.apnmt.payment.common.service.dto.ProductDTO;
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+import de.apnmt.payment.common.service.mapper.PriceMapper;
+import de.apnmt.payment.common.service.mapper.ProductMapper;
+import de.apnmt.payment.common.service.mapper.SubscriptionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Entity to DTO conversion by the MapStruct mappers, as done by every read endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private SubscriptionMapper subscriptionMapper;
+
+    private PriceMapper priceMapper;
+
+    private ProductMapper productMapper;
+
+    private Subscription subscription;
+
+    private Price price;
+
+    private Product product;
+
+    private SubscriptionDTO subscriptionDTO;
+
+    @Setup
+    public void setUp() {
+        this.context = BenchmarkFixtures.mapperContext();
+        this.subscriptionMapper = this.context.getBean(SubscriptionMapper.class);
+        this.priceMapper = this.context.getBean(PriceMapper.class);
+        this.productMapper = this.context.getBean(ProductMapper.class);
+        this.subscription = BenchmarkFixtures.subscription();
+        this.product = BenchmarkFixtures.product();
+        this.price = BenchmarkFixtures.price(this.product, 0);
+        this.subscriptionDTO = this.subscriptionMapper.toDto(this.subscription);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public SubscriptionDTO subscriptionToDto() {
+        return this.subscriptionMapper.toDto(this.subscription);
+    }
+
+    @Benchmark
+    public Subscription subscriptionToEntity() {
+        return this.subscriptionMapper.toEntity(this.subscriptionDTO);
+    }
+
+    @Benchmark
+    public PriceDTO priceToDto() {
+        return this.priceMapper.toDto(this.price);
+    }
+
+    @Benchmark
+    public ProductDTO productToDto() {
+        return this.productMapper.toDto(this.product);
+    }
+}
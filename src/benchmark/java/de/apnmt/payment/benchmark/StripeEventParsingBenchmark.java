@@ -0,0 +1,75 @@
+package de.apnmt.payment.benchmark;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.model.EventData;
+import com.stripe.model.Invoice;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiResource;
+import com.stripe.net.Webhook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing of the Stripe events posted to {@code /api/stripe/events}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StripeEventParsingBenchmark {
+
+    private static final String SECRET = "whsec_benchmark";
+
+    private String payload;
+
+    private String signatureHeader;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException, InvalidKeyException {
+        Invoice invoice = new Invoice();
+        invoice.setId("in_benchmark");
+        invoice.setObject("invoice");
+        invoice.setSubscription("sub_benchmark");
+        invoice.setCustomer("cus_benchmark");
+        invoice.setAmountPaid(4900L);
+        invoice.setCurrency("eur");
+        EventData eventData = new EventData();
+        eventData.setObject(ApiResource.GSON.fromJson(invoice.toJson(), JsonObject.class));
+        Event event = new Event();
+        event.setId("evt_benchmark");
+        event.setApiVersion("2020-08-27");
+        event.setType("invoice.payment_succeeded");
+        event.setObject("event");
+        event.setData(eventData);
+        this.payload = event.toJson();
+        long timestamp = Webhook.Util.getTimeNow();
+        this.signatureHeader = "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(SECRET, timestamp + "." + this.payload);
+    }
+
+    @Benchmark
+    public Event parseEvent() {
+        return ApiResource.GSON.fromJson(this.payload, Event.class);
+    }
+
+    @Benchmark
+    public Optional<StripeObject> parseEventWithData() {
+        return ApiResource.GSON.fromJson(this.payload, Event.class).getDataObjectDeserializer().getObject();
+    }
+
+    @Benchmark
+    public Event verifyAndParseEvent() throws SignatureVerificationException {
+        // a tolerance of zero skips the timestamp check, the benchmark outlives the default tolerance
+        return Webhook.constructEvent(this.payload, this.signatureHeader, SECRET, 0);
+    }
+}
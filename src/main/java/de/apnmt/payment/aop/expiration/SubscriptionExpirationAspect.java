@@ -0,0 +1,43 @@
+package de.apnmt.payment.aop.expiration;
+
+import java.time.LocalDateTime;
+
+import de.apnmt.payment.service.SubscriptionExpirationSweepService;
+import de.apnmt.payment.service.SubscriptionExpiryIndexService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Aspect replacing the expiration check of payment-service-common with the chunked
+ * {@link SubscriptionExpirationSweepService}, both for scheduled runs and direct calls. With the expiry index enabled,
+ * only the due subscriptions of the {@link SubscriptionExpiryIndexService} are checked.
+ */
+@Aspect
+public class SubscriptionExpirationAspect {
+
+    private final SubscriptionExpirationSweepService sweepService;
+
+    private final SubscriptionExpiryIndexService indexService;
+
+    public SubscriptionExpirationAspect(SubscriptionExpirationSweepService sweepService, SubscriptionExpiryIndexService indexService) {
+        this.sweepService = sweepService;
+        this.indexService = indexService;
+    }
+
+    /**
+     * Advice running the chunked sweep instead of the original check.
+     *
+     * @param joinPoint join point for advice.
+     * @return {@code null}, the expiration check does not return a value.
+     */
+    @Around("execution(* de.apnmt.payment.common.service.SubscriptionExpirationService.checkExpirationOfSubscriptions())")
+    public Object sweep(ProceedingJoinPoint joinPoint) {
+        if (this.indexService.isEnabled()) {
+            this.indexService.fireDue(LocalDateTime.now());
+        } else {
+            this.sweepService.sweep(LocalDateTime.now());
+        }
+        return null;
+    }
+}
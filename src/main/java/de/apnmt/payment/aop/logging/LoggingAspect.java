@@ -1,30 +1,50 @@
 package de.apnmt.payment.aop.logging;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.util.ClassUtils;
 import tech.jhipster.config.JHipsterConstants;
 
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, {@code application.tracing.enabled} turns it on elsewhere.
+ * <p>
+ * Loggers and names are resolved once per method, arguments and results are only rendered for the sampled share of the
+ * calls when debug logging is on, and every call is timed into the lock-free histogram of its method exposed by the
+ * {@link MethodTimingEndpoint}.
  */
 @Aspect
 public class LoggingAspect {
 
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final MethodTimingEndpoint methodTimings;
+
+    private final double sampleRate;
+
+    private final Map<Class<?>, Map<Method, MethodTrace>> traces = new ConcurrentHashMap<>();
+
+    public LoggingAspect(Environment env, MethodTimingEndpoint methodTimings, double sampleRate) {
         this.env = env;
+        this.methodTimings = methodTimings;
+        this.sampleRate = sampleRate;
     }
 
     /**
@@ -49,6 +69,40 @@ public class LoggingAspect {
         // Method is empty as this is just a Pointcut, the implementations are in the advices.
     }
 
+    /**
+     * Retrieves the {@link MethodTrace} associated to the given {@link JoinPoint}.
+     *
+     * @param joinPoint join point we want the trace for.
+     * @return {@link MethodTrace} associated to the given {@link JoinPoint}.
+     */
+    private MethodTrace trace(JoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Object target = joinPoint.getTarget();
+        Class<?> targetClass = target != null ? target.getClass() : signature.getDeclaringType();
+        Map<Method, MethodTrace> traces = this.traces.get(targetClass);
+        if (traces == null) {
+            traces = this.traces.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+        Method method = signature.getMethod();
+        MethodTrace trace = traces.get(method);
+        if (trace == null) {
+            trace = traces.computeIfAbsent(method, key -> new MethodTrace(userClass(targetClass), key, this.methodTimings));
+        }
+        return trace;
+    }
+
+    /**
+     * Resolves the class the advised method is called on, e.g. the repository interface rather than the
+     * {@code CrudRepository} declaring an inherited method, so the methods of different beans are not merged.
+     */
+    private static Class<?> userClass(Class<?> targetClass) {
+        Class<?> userClass = ClassUtils.getUserClass(targetClass);
+        if (Proxy.isProxyClass(userClass) && userClass.getInterfaces().length > 0) {
+            return userClass.getInterfaces()[0];
+        }
+        return userClass;
+    }
+
     /**
      * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
      *
@@ -56,7 +110,11 @@ public class LoggingAspect {
      * @return {@link Logger} associated to the given {@link JoinPoint}.
      */
     private Logger logger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+        return this.trace(joinPoint).log;
+    }
+
+    private boolean sampled() {
+        return this.sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < this.sampleRate;
     }
 
     /**
@@ -95,19 +153,42 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        MethodTrace trace = this.trace(joinPoint);
+        Logger log = trace.log;
+        boolean logged = log.isDebugEnabled() && this.sampled();
+        if (logged) {
+            log.debug("Enter: {}() with argument[s] = {}", trace.name, Arrays.toString(joinPoint.getArgs()));
         }
+        long start = System.nanoTime();
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            if (logged) {
+                log.debug("Exit: {}() with result = {}", trace.name, result);
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), trace.name);
             throw e;
+        } finally {
+            trace.timing.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Logger, name and timing of one advised method of a bean class, resolved on its first call.
+     */
+    private static final class MethodTrace {
+
+        private final Logger log;
+
+        private final String name;
+
+        private final MethodTiming timing;
+
+        private MethodTrace(Class<?> type, Method method, MethodTimingEndpoint methodTimings) {
+            this.log = LoggerFactory.getLogger(type.getName());
+            this.name = method.getName();
+            this.timing = methodTimings.timingOf(type.getSimpleName() + "." + method.getName());
         }
     }
 }
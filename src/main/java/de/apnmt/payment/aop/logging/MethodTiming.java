@@ -0,0 +1,82 @@
+package de.apnmt.payment.aop.logging;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram of one method.
+ * <p>
+ * Durations are counted in power-of-two nanosecond buckets, so recording is a single atomic increment and percentiles
+ * are reported as the upper bound of their bucket, i.e. with at most a factor of two of error.
+ */
+public class MethodTiming {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one invocation.
+     *
+     * @param nanos the duration of the invocation.
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        // bucket i holds the durations of i significant bits
+        this.buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(duration));
+        this.totalNanos.add(duration);
+        this.maxNanos.accumulate(duration);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+
+    public long totalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 1.
+     * @return the upper bound of the bucket holding the percentile in nanoseconds, 0 if nothing was recorded.
+     */
+    public long percentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(1, Math.max(0, percentile)) * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(upperBound(i), this.maxNanos());
+            }
+        }
+        return this.maxNanos();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
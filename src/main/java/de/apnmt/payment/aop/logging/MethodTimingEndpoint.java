@@ -0,0 +1,61 @@
+package de.apnmt.payment.aop.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+/**
+ * Management endpoint exposing the per-method timings recorded by the {@link LoggingAspect}, available at
+ * {@code /management/methodtimings}.
+ */
+@Endpoint(id = "methodtimings")
+public class MethodTimingEndpoint {
+
+    private final ConcurrentMap<String, MethodTiming> timings = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the timing of a method, creating it on first use.
+     *
+     * @param method the name of the method.
+     * @return the timing of the method.
+     */
+    MethodTiming timingOf(String method) {
+        return this.timings.computeIfAbsent(method, key -> new MethodTiming());
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> timings() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        this.timings.forEach((method, timing) -> result.put(method, summary(timing)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> timing(@Selector String method) {
+        MethodTiming timing = this.timings.get(method);
+        return timing != null ? summary(timing) : null;
+    }
+
+    private static Map<String, Object> summary(MethodTiming timing) {
+        long count = timing.count();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("meanMs", count > 0 ? toMillis(timing.totalNanos() / count) : 0.0);
+        summary.put("p50Ms", toMillis(timing.percentileNanos(0.5)));
+        summary.put("p99Ms", toMillis(timing.percentileNanos(0.99)));
+        summary.put("p999Ms", toMillis(timing.percentileNanos(0.999)));
+        summary.put("maxMs", toMillis(timing.maxNanos()));
+        return summary;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
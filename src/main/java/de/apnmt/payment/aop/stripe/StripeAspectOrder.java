@@ -0,0 +1,31 @@
+package de.apnmt.payment.aop.stripe;
+
+/**
+ * Order of the aspects around the Stripe services, from the outermost to the innermost.
+ */
+public final class StripeAspectOrder {
+
+    /**
+     * Cache hits skip every other aspect.
+     */
+    public static final int CACHE = 1;
+
+    /**
+     * Takes a token of the rate limiter, after identical lookups were coalesced.
+     */
+    public static final int LIMITER = 2;
+
+    /**
+     * Runs the call in a bulkhead behind its circuit breaker, after the token was taken so waiting for it does not
+     * count against the time limit.
+     */
+    public static final int BREAKER = 3;
+
+    /**
+     * Innermost, times the round trips that actually reach Stripe.
+     */
+    public static final int METRICS = 4;
+
+    private StripeAspectOrder() {
+    }
+}
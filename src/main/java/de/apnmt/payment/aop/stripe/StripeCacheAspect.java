@@ -0,0 +1,64 @@
+package de.apnmt.payment.aop.stripe;
+
+import com.stripe.model.Event;
+import de.apnmt.payment.service.StripeObjectCache;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect putting the {@link StripeObjectCache} in front of the Stripe services of payment-service-common.
+ */
+@Aspect
+@Order(StripeAspectOrder.CACHE)
+public class StripeCacheAspect {
+
+    private final StripeObjectCache stripeObjectCache;
+
+    public StripeCacheAspect(StripeObjectCache stripeObjectCache) {
+        this.stripeObjectCache = stripeObjectCache;
+    }
+
+    /**
+     * Pointcut that matches the lookups of Stripe subscriptions, customers and prices by id.
+     */
+    @Pointcut(
+        "execution(public com.stripe.model.Subscription de.apnmt.payment.common.service.stripe..*.get*(String))" +
+        " || execution(public com.stripe.model.Customer de.apnmt.payment.common.service.stripe..*.get*(String))" +
+        " || execution(public com.stripe.model.Price de.apnmt.payment.common.service.stripe..*.get*(String))"
+    )
+    public void stripeLookupPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice answering the lookups from the cache and caching the objects fetched on a miss.
+     *
+     * @param joinPoint join point for advice.
+     * @return the Stripe object.
+     * @throws Throwable throws the exception of the Stripe call.
+     */
+    @Around("stripeLookupPointcut()")
+    public Object readThrough(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        String id = (String) joinPoint.getArgs()[0];
+        if (id == null || !this.stripeObjectCache.isCached(type)) {
+            return joinPoint.proceed();
+        }
+        return this.stripeObjectCache.get(type, id, joinPoint::proceed);
+    }
+
+    /**
+     * Advice refreshing the cache with the object of a webhook before the webhook is processed.
+     *
+     * @param event the Stripe event of the webhook.
+     */
+    @Before("execution(* de.apnmt.payment.common.service.StripeWebhookService.*(..)) && args(event,..)")
+    public void refresh(Event event) {
+        this.stripeObjectCache.onEvent(event);
+    }
+}
@@ -0,0 +1,111 @@
+package de.apnmt.payment.aop.stripe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect timing the Stripe API round trips of the Stripe services and the processing of the Stripe webhooks.
+ * <p>
+ * Round trips are tagged with the operation, e.g. {@code SubscriptionStripeService.getSubscription}, and webhooks with
+ * the Stripe event type, both bounded sets. Failures are tagged with the exception class, Stripe errors with their
+ * error code.
+ */
+@Aspect
+@Order(StripeAspectOrder.METRICS)
+public class StripeMetricsAspect {
+
+    static final String STRIPE_REQUESTS = "payment.stripe.requests";
+
+    static final String WEBHOOK_EVENTS = "payment.webhook.events";
+
+    private static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, String> operations = new ConcurrentHashMap<>();
+
+    public StripeMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches the public methods of the Stripe services.
+     */
+    @Pointcut(
+        "execution(public * de.apnmt.payment.common.service.stripe..*.*(..))" +
+        " || execution(public * de.apnmt.payment.service.stripe..*.*(..))"
+    )
+    public void stripeServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice timing a Stripe API round trip.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws the exception of the Stripe call.
+     */
+    @Around("stripeServicePointcut()")
+    public Object timeStripeRequest(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = this.operations.computeIfAbsent(joinPoint.getSignature().toLongString(),
+            key -> joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        long start = this.meterRegistry.config().clock().monotonicTime();
+        String outcome = SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (StripeException e) {
+            outcome = e.getCode() != null ? e.getCode() : e.getClass().getSimpleName();
+            throw e;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            this.record(STRIPE_REQUESTS, "Stripe API round trips", "operation", operation, outcome, start);
+        }
+    }
+
+    /**
+     * Advice timing the processing of a Stripe webhook. It runs on the thread processing the webhook, after the
+     * asynchronous hand-off.
+     *
+     * @param joinPoint join point for advice.
+     * @param event     the Stripe event of the webhook.
+     * @return result.
+     * @throws Throwable throws the exception of the processing.
+     */
+    @Around("execution(* de.apnmt.payment.common.service.StripeWebhookService.*(..)) && args(event,..)")
+    public Object timeWebhook(ProceedingJoinPoint joinPoint, Event event) throws Throwable {
+        long start = this.meterRegistry.config().clock().monotonicTime();
+        String outcome = SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            String type = event != null && event.getType() != null ? event.getType() : "unknown";
+            this.record(WEBHOOK_EVENTS, "Processing of the Stripe webhooks", "type", type, outcome, start);
+        }
+    }
+
+    private void record(String name, String description, String tag, String value, String outcome, long start) {
+        Timer.builder(name)
+            .description(description)
+            .tag(tag, value)
+            .tag("outcome", outcome)
+            .register(this.meterRegistry)
+            .record(this.meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
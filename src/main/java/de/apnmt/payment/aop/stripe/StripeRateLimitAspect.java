@@ -0,0 +1,110 @@
+package de.apnmt.payment.aop.stripe;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import de.apnmt.payment.service.StripeCallPriority;
+import de.apnmt.payment.service.StripeObjectCache;
+import de.apnmt.payment.service.StripeRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect taking a token of the {@link StripeRateLimiter} for every Stripe call and coalescing concurrent identical
+ * lookups of the same priority into a single call, whose result or error is shared by all callers.
+ * <p>
+ * Lookups made while processing a webhook are never coalesced: a call already in flight may have started before the
+ * event was emitted and return the object as it was before.
+ */
+@Aspect
+@Order(StripeAspectOrder.LIMITER)
+public class StripeRateLimitAspect {
+
+    private final StripeRateLimiter rateLimiter;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalescedCounter;
+
+    public StripeRateLimitAspect(StripeRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.coalescedCounter = Counter.builder("payment.stripe.coalesced").description("Stripe lookups answered by a call already in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Pointcut that matches the public methods of the Stripe services.
+     */
+    @Pointcut(
+        "execution(public * de.apnmt.payment.common.service.stripe..*.*(..))" +
+        " || execution(public * de.apnmt.payment.service.stripe..*.*(..))"
+    )
+    public void stripeServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice taking a token before the Stripe call, joining a lookup of the same object already in flight instead.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws the exception of the Stripe call or of the limiter.
+     */
+    @Around("stripeServicePointcut()")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Object[] args = joinPoint.getArgs();
+        StripeCallPriority priority = StripeCallPriority.current();
+        boolean lookup = priority != StripeCallPriority.WEBHOOK && signature.getName().startsWith("get") && args.length == 1 && args[0] instanceof String;
+        if (!lookup) {
+            this.rateLimiter.acquire(priority);
+            return joinPoint.proceed();
+        }
+        // a lookup only joins a call waiting for the limiter with the same priority
+        String key = priority + ":" + signature.getDeclaringTypeName() + "." + signature.getName() + ":" + args[0];
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> leader = this.inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            this.coalescedCounter.increment();
+            try {
+                return StripeObjectCache.copy(leader.get());
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            this.rateLimiter.acquire(priority);
+            Object result = joinPoint.proceed();
+            this.inFlight.remove(key, call);
+            // the followers copy a snapshot taken before the caller of the leader can change the object
+            call.complete(StripeObjectCache.copy(result));
+            return result;
+        } catch (Throwable e) {
+            this.inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Advice running the Stripe calls made while processing a webhook with the highest priority.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws the exception of the processing.
+     */
+    @Around("execution(* de.apnmt.payment.common.service.StripeWebhookService.*(..))")
+    public Object prioritizeWebhook(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.WEBHOOK)) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.apnmt.payment.aop.stripe;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import de.apnmt.payment.service.StripeCallGuard;
+import de.apnmt.payment.service.StripeCallPriority;
+import de.apnmt.payment.service.StripeObjectCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect running the Stripe calls through the {@link StripeCallGuard}.
+ * <p>
+ * Lookups of subscriptions, customers and prices by id fall back to the last known state of the object from the
+ * {@link StripeObjectCache} while Stripe is unavailable. Webhook processing never gets the last known state, it
+ * persists what it reads and must fail to be retried instead. Other calls fail fast with an
+ * {@link ApiConnectionException}, which the callers already handle for Stripe being unreachable. Only reads are
+ * time-limited, so a write only fails this way when it was rejected before reaching Stripe.
+ */
+@Aspect
+@Order(StripeAspectOrder.BREAKER)
+public class StripeResilienceAspect {
+
+    private final Logger log = LoggerFactory.getLogger(StripeResilienceAspect.class);
+
+    private final StripeCallGuard stripeCallGuard;
+
+    private final StripeObjectCache stripeObjectCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private static final List<String> READ_PREFIXES = List.of("get", "list", "search", "retrieve", "find");
+
+    private final Map<String, String> operations = new ConcurrentHashMap<>();
+
+    public StripeResilienceAspect(StripeCallGuard stripeCallGuard, StripeObjectCache stripeObjectCache, MeterRegistry meterRegistry) {
+        this.stripeCallGuard = stripeCallGuard;
+        this.stripeObjectCache = stripeObjectCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches the public methods of the Stripe services.
+     */
+    @Pointcut(
+        "execution(public * de.apnmt.payment.common.service.stripe..*.*(..))" +
+        " || execution(public * de.apnmt.payment.service.stripe..*.*(..))"
+    )
+    public void stripeServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice guarding a Stripe call, serving the last known state of the object when a lookup cannot reach Stripe.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws the exception of the Stripe call, or an {@link ApiConnectionException} if the call was
+     *                   rejected or timed out.
+     */
+    @Around("stripeServicePointcut()")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String operation = this.operations.computeIfAbsent(signature.toLongString(),
+            key -> signature.getDeclaringType().getSimpleName() + "." + signature.getName());
+        Object[] args = joinPoint.getArgs();
+        Class<?> type = signature.getReturnType();
+        StripeCallPriority priority = StripeCallPriority.current();
+        boolean lookup = signature.getName().startsWith("get") && args.length == 1 && args[0] instanceof String
+            && this.stripeObjectCache.isCached(type);
+        try {
+            Object result = this.stripeCallGuard.call(operation, priority, !isRead(signature), () -> proceed(joinPoint));
+            if (lookup) {
+                this.stripeObjectCache.remember(type, (String) args[0], result);
+            }
+            return result;
+        } catch (Exception e) {
+            if (lookup && priority != StripeCallPriority.WEBHOOK && StripeCallGuard.isUnavailable(e)) {
+                Object lastKnown = this.stripeObjectCache.getLastKnown(type, (String) args[0]);
+                if (lastKnown != null) {
+                    this.log.warn("Stripe unavailable for {}, serving the last known {} {}: {}", operation, type.getSimpleName(), args[0],
+                        e.toString());
+                    Counter.builder("payment.stripe.fallback").description("Stripe lookups answered with the last known state of the object")
+                        .tag("operation", operation).register(this.meterRegistry).increment();
+                    return lastKnown;
+                }
+            }
+            throw translate(signature, e);
+        }
+    }
+
+    private static boolean isRead(MethodSignature signature) {
+        return READ_PREFIXES.stream().anyMatch(signature.getName()::startsWith);
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return joinPoint.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Turns a rejection or time-out of the guard into the error Stripe services raise for an unreachable Stripe, if
+     * the method can throw it.
+     */
+    private static Exception translate(MethodSignature signature, Exception e) {
+        if (e instanceof StripeException || !StripeCallGuard.isUnavailable(e)) {
+            return e;
+        }
+        for (Class<?> exceptionType : signature.getExceptionTypes()) {
+            if (exceptionType.isAssignableFrom(ApiConnectionException.class)) {
+                return new ApiConnectionException("Stripe is unavailable: " + e.getMessage(), e);
+            }
+        }
+        return e instanceof RuntimeException ? e : new IllegalStateException("Stripe is unavailable: " + e.getMessage(), e);
+    }
+}
@@ -1,5 +1,8 @@
 package de.apnmt.payment.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,4 +13,1046 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application")
 public class ApplicationProperties {
+
+    private final Kafka kafka = new Kafka();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Expiration expiration = new Expiration();
+
+    private final Webhook webhook = new Webhook();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Stripe stripe = new Stripe();
+
+    private final CatalogCache catalogCache = new CatalogCache();
+
+    private final CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+    private final Export export = new Export();
+
+    private final Tracing tracing = new Tracing();
+
+    private final LogShipping logShipping = new LogShipping();
+
+    private final BulkCheckout bulkCheckout = new BulkCheckout();
+
+    public Kafka getKafka() {
+        return this.kafka;
+    }
+
+    public Outbox getOutbox() {
+        return this.outbox;
+    }
+
+    public Expiration getExpiration() {
+        return this.expiration;
+    }
+
+    public Webhook getWebhook() {
+        return this.webhook;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    public Stripe getStripe() {
+        return this.stripe;
+    }
+
+    public CatalogCache getCatalogCache() {
+        return this.catalogCache;
+    }
+
+    public CatalogSnapshot getCatalogSnapshot() {
+        return this.catalogSnapshot;
+    }
+
+    public Export getExport() {
+        return this.export;
+    }
+
+    public Tracing getTracing() {
+        return this.tracing;
+    }
+
+    public LogShipping getLogShipping() {
+        return this.logShipping;
+    }
+
+    public BulkCheckout getBulkCheckout() {
+        return this.bulkCheckout;
+    }
+
+    public static class Kafka {
+
+        private final Batching batching = new Batching();
+
+        public Batching getBatching() {
+            return this.batching;
+        }
+
+        /**
+         * Batching mode of the event senders: events are buffered in a bounded queue and handed to the producer in batches.
+         */
+        public static class Batching {
+
+            private boolean enabled = false;
+
+            private int queueCapacity = 10000;
+
+            private int batchSize = 100;
+
+            private long lingerMs = 20;
+
+            private long enqueueTimeoutMs = 100;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getQueueCapacity() {
+                return this.queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getBatchSize() {
+                return this.batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getLingerMs() {
+                return this.lingerMs;
+            }
+
+            public void setLingerMs(long lingerMs) {
+                this.lingerMs = lingerMs;
+            }
+
+            public long getEnqueueTimeoutMs() {
+                return this.enqueueTimeoutMs;
+            }
+
+            public void setEnqueueTimeoutMs(long enqueueTimeoutMs) {
+                this.enqueueTimeoutMs = enqueueTimeoutMs;
+            }
+        }
+    }
+
+    /**
+     * Transactional outbox for events that must only be published once the surrounding transaction committed.
+     */
+    public static class Outbox {
+
+        private boolean enabled = false;
+
+        private int batchSize = 100;
+
+        private long relayIntervalMs = 500;
+
+        private long sendTimeoutMs = 10000;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return this.batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRelayIntervalMs() {
+            return this.relayIntervalMs;
+        }
+
+        public void setRelayIntervalMs(long relayIntervalMs) {
+            this.relayIntervalMs = relayIntervalMs;
+        }
+
+        public long getSendTimeoutMs() {
+            return this.sendTimeoutMs;
+        }
+
+        public void setSendTimeoutMs(long sendTimeoutMs) {
+            this.sendTimeoutMs = sendTimeoutMs;
+        }
+    }
+
+    /**
+     * Expiration sweep over the subscriptions.
+     */
+    public static class Expiration {
+
+        private int chunkSize = 500;
+
+        private long sendTimeoutMs = 30000;
+
+        private final Sharding sharding = new Sharding();
+
+        private final Index index = new Index();
+
+        public int getChunkSize() {
+            return this.chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getSendTimeoutMs() {
+            return this.sendTimeoutMs;
+        }
+
+        public void setSendTimeoutMs(long sendTimeoutMs) {
+            this.sendTimeoutMs = sendTimeoutMs;
+        }
+
+        public Sharding getSharding() {
+            return this.sharding;
+        }
+
+        public Index getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Splits the sweep into shards of subscription ids leased to the running instances.
+         */
+        public static class Sharding {
+
+            private boolean enabled = false;
+
+            private int shardCount = 64;
+
+            private String instanceId;
+
+            private long leaseTtlMs = 120000;
+
+            private long memberTtlMs = 90000;
+
+            private long heartbeatIntervalMs = 30000;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getShardCount() {
+                return this.shardCount;
+            }
+
+            public void setShardCount(int shardCount) {
+                this.shardCount = shardCount;
+            }
+
+            public String getInstanceId() {
+                return this.instanceId;
+            }
+
+            public void setInstanceId(String instanceId) {
+                this.instanceId = instanceId;
+            }
+
+            public long getLeaseTtlMs() {
+                return this.leaseTtlMs;
+            }
+
+            public void setLeaseTtlMs(long leaseTtlMs) {
+                this.leaseTtlMs = leaseTtlMs;
+            }
+
+            public long getMemberTtlMs() {
+                return this.memberTtlMs;
+            }
+
+            public void setMemberTtlMs(long memberTtlMs) {
+                this.memberTtlMs = memberTtlMs;
+            }
+
+            public long getHeartbeatIntervalMs() {
+                return this.heartbeatIntervalMs;
+            }
+
+            public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+                this.heartbeatIntervalMs = heartbeatIntervalMs;
+            }
+        }
+
+        /**
+         * In-memory, time-bucketed index of the upcoming expirations, firing deactivations shortly after they are due.
+         */
+        public static class Index {
+
+            private boolean enabled = false;
+
+            private long resolutionMs = 1000;
+
+            private long tickMs = 1000;
+
+            private long reconcileIntervalMs = 600000;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getResolutionMs() {
+                return this.resolutionMs;
+            }
+
+            public void setResolutionMs(long resolutionMs) {
+                this.resolutionMs = resolutionMs;
+            }
+
+            public long getTickMs() {
+                return this.tickMs;
+            }
+
+            public void setTickMs(long tickMs) {
+                this.tickMs = tickMs;
+            }
+
+            public long getReconcileIntervalMs() {
+                return this.reconcileIntervalMs;
+            }
+
+            public void setReconcileIntervalMs(long reconcileIntervalMs) {
+                this.reconcileIntervalMs = reconcileIntervalMs;
+            }
+        }
+    }
+
+    /**
+     * Dedicated stage processing the Stripe webhooks, bounded so retry storms are pushed back to Stripe.
+     */
+    public static class Webhook {
+
+        private int concurrency = 4;
+
+        private int queueCapacity = 200;
+
+        private int retryAfterSeconds = 5;
+
+        private final Deduplication deduplication = new Deduplication();
+
+        private final Lanes lanes = new Lanes();
+
+        public int getConcurrency() {
+            return this.concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getQueueCapacity() {
+            return this.queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getRetryAfterSeconds() {
+            return this.retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public Deduplication getDeduplication() {
+            return this.deduplication;
+        }
+
+        public Lanes getLanes() {
+            return this.lanes;
+        }
+
+        /**
+         * Processes the webhooks of one subscription one after another, in the order they were received.
+         */
+        public static class Lanes {
+
+            private boolean enabled = true;
+
+            private List<String> coalescedEventTypes = new ArrayList<>(List.of("invoice.payment_succeeded"));
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getCoalescedEventTypes() {
+                return this.coalescedEventTypes;
+            }
+
+            public void setCoalescedEventTypes(List<String> coalescedEventTypes) {
+                this.coalescedEventTypes = coalescedEventTypes;
+            }
+        }
+
+        /**
+         * Acknowledges redeliveries of already processed Stripe events without processing them again.
+         */
+        public static class Deduplication {
+
+            private boolean enabled = true;
+
+            private int cacheSize = 10000;
+
+            private long ttlMs = 259200000;
+
+            private long cleanupIntervalMs = 3600000;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getCacheSize() {
+                return this.cacheSize;
+            }
+
+            public void setCacheSize(int cacheSize) {
+                this.cacheSize = cacheSize;
+            }
+
+            public long getTtlMs() {
+                return this.ttlMs;
+            }
+
+            public void setTtlMs(long ttlMs) {
+                this.ttlMs = ttlMs;
+            }
+
+            public long getCleanupIntervalMs() {
+                return this.cleanupIntervalMs;
+            }
+
+            public void setCleanupIntervalMs(long cleanupIntervalMs) {
+                this.cleanupIntervalMs = cleanupIntervalMs;
+            }
+        }
+    }
+
+    /**
+     * Runs requests and asynchronous work on virtual threads, when the JVM supports them.
+     */
+    public static class VirtualThreads {
+
+        private boolean enabled = false;
+
+        private long pinnedThresholdMs = 20;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getPinnedThresholdMs() {
+            return this.pinnedThresholdMs;
+        }
+
+        public void setPinnedThresholdMs(long pinnedThresholdMs) {
+            this.pinnedThresholdMs = pinnedThresholdMs;
+        }
+    }
+
+    public static class Stripe {
+
+        private final Cache cache = new Cache();
+
+        private final RateLimit rateLimit = new RateLimit();
+
+        private final Resilience resilience = new Resilience();
+
+        public Cache getCache() {
+            return this.cache;
+        }
+
+        public RateLimit getRateLimit() {
+            return this.rateLimit;
+        }
+
+        public Resilience getResilience() {
+            return this.resilience;
+        }
+
+        /**
+         * Bulkheads, time limits and circuit breakers of the Stripe calls.
+         */
+        public static class Resilience {
+
+            private final Bulkhead checkout = new Bulkhead(20, 20);
+
+            private final Bulkhead webhook = new Bulkhead(8, 50);
+
+            private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+            private boolean enabled = true;
+
+            private long timeoutMs = 10000;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getTimeoutMs() {
+                return this.timeoutMs;
+            }
+
+            public void setTimeoutMs(long timeoutMs) {
+                this.timeoutMs = timeoutMs;
+            }
+
+            public Bulkhead getCheckout() {
+                return this.checkout;
+            }
+
+            public Bulkhead getWebhook() {
+                return this.webhook;
+            }
+
+            public CircuitBreaker getCircuitBreaker() {
+                return this.circuitBreaker;
+            }
+
+            /**
+             * Thread pool the Stripe calls of a class of callers run on.
+             */
+            public static class Bulkhead {
+
+                private int maxThreads;
+
+                private int queueCapacity;
+
+                public Bulkhead() {
+                }
+
+                Bulkhead(int maxThreads, int queueCapacity) {
+                    this.maxThreads = maxThreads;
+                    this.queueCapacity = queueCapacity;
+                }
+
+                public int getMaxThreads() {
+                    return this.maxThreads;
+                }
+
+                public void setMaxThreads(int maxThreads) {
+                    this.maxThreads = maxThreads;
+                }
+
+                public int getQueueCapacity() {
+                    return this.queueCapacity;
+                }
+
+                public void setQueueCapacity(int queueCapacity) {
+                    this.queueCapacity = queueCapacity;
+                }
+            }
+
+            /**
+             * Circuit breaker of every Stripe operation.
+             */
+            public static class CircuitBreaker {
+
+                private float failureRateThreshold = 50;
+
+                private float slowCallRateThreshold = 80;
+
+                private long slowCallDurationMs = 5000;
+
+                private int slidingWindowSize = 50;
+
+                private int minimumNumberOfCalls = 20;
+
+                private long waitInOpenStateMs = 30000;
+
+                private int permittedCallsInHalfOpenState = 5;
+
+                public float getFailureRateThreshold() {
+                    return this.failureRateThreshold;
+                }
+
+                public void setFailureRateThreshold(float failureRateThreshold) {
+                    this.failureRateThreshold = failureRateThreshold;
+                }
+
+                public float getSlowCallRateThreshold() {
+                    return this.slowCallRateThreshold;
+                }
+
+                public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+                    this.slowCallRateThreshold = slowCallRateThreshold;
+                }
+
+                public long getSlowCallDurationMs() {
+                    return this.slowCallDurationMs;
+                }
+
+                public void setSlowCallDurationMs(long slowCallDurationMs) {
+                    this.slowCallDurationMs = slowCallDurationMs;
+                }
+
+                public int getSlidingWindowSize() {
+                    return this.slidingWindowSize;
+                }
+
+                public void setSlidingWindowSize(int slidingWindowSize) {
+                    this.slidingWindowSize = slidingWindowSize;
+                }
+
+                public int getMinimumNumberOfCalls() {
+                    return this.minimumNumberOfCalls;
+                }
+
+                public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+                    this.minimumNumberOfCalls = minimumNumberOfCalls;
+                }
+
+                public long getWaitInOpenStateMs() {
+                    return this.waitInOpenStateMs;
+                }
+
+                public void setWaitInOpenStateMs(long waitInOpenStateMs) {
+                    this.waitInOpenStateMs = waitInOpenStateMs;
+                }
+
+                public int getPermittedCallsInHalfOpenState() {
+                    return this.permittedCallsInHalfOpenState;
+                }
+
+                public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+                    this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+                }
+            }
+        }
+
+        /**
+         * Token bucket shared by the Stripe calls, with a reserve of tokens per priority class.
+         */
+        public static class RateLimit {
+
+            private boolean enabled = true;
+
+            private double permitsPerSecond = 25;
+
+            private int burst = 25;
+
+            private long maxWaitMs = 2000;
+
+            private double checkoutReserve = 0.1;
+
+            private double readReserve = 0.3;
+
+            private double bulkReserve = 0.5;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getPermitsPerSecond() {
+                return this.permitsPerSecond;
+            }
+
+            public void setPermitsPerSecond(double permitsPerSecond) {
+                this.permitsPerSecond = permitsPerSecond;
+            }
+
+            public int getBurst() {
+                return this.burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+
+            public long getMaxWaitMs() {
+                return this.maxWaitMs;
+            }
+
+            public void setMaxWaitMs(long maxWaitMs) {
+                this.maxWaitMs = maxWaitMs;
+            }
+
+            public double getCheckoutReserve() {
+                return this.checkoutReserve;
+            }
+
+            public void setCheckoutReserve(double checkoutReserve) {
+                this.checkoutReserve = checkoutReserve;
+            }
+
+            public double getReadReserve() {
+                return this.readReserve;
+            }
+
+            public void setReadReserve(double readReserve) {
+                this.readReserve = readReserve;
+            }
+
+            public double getBulkReserve() {
+                return this.bulkReserve;
+            }
+
+            public void setBulkReserve(double bulkReserve) {
+                this.bulkReserve = bulkReserve;
+            }
+        }
+
+        /**
+         * Read-through cache of the Stripe objects fetched by id, refreshed by the webhooks.
+         */
+        public static class Cache {
+
+            private boolean enabled = true;
+
+            private long maximumSize = 10000;
+
+            private long subscriptionTtlMs = 300000;
+
+            private long customerTtlMs = 900000;
+
+            private long priceTtlMs = 3600000;
+
+            private long staleTtlMs = 86400000;
+
+            public boolean isEnabled() {
+                return this.enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaximumSize() {
+                return this.maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+
+            public long getSubscriptionTtlMs() {
+                return this.subscriptionTtlMs;
+            }
+
+            public void setSubscriptionTtlMs(long subscriptionTtlMs) {
+                this.subscriptionTtlMs = subscriptionTtlMs;
+            }
+
+            public long getCustomerTtlMs() {
+                return this.customerTtlMs;
+            }
+
+            public void setCustomerTtlMs(long customerTtlMs) {
+                this.customerTtlMs = customerTtlMs;
+            }
+
+            public long getPriceTtlMs() {
+                return this.priceTtlMs;
+            }
+
+            public void setPriceTtlMs(long priceTtlMs) {
+                this.priceTtlMs = priceTtlMs;
+            }
+
+            public long getStaleTtlMs() {
+                return this.staleTtlMs;
+            }
+
+            public void setStaleTtlMs(long staleTtlMs) {
+                this.staleTtlMs = staleTtlMs;
+            }
+        }
+    }
+
+    /**
+     * Hibernate second-level cache of the products and prices, invalidated across the replicas through Kafka.
+     */
+    public static class CatalogCache {
+
+        private boolean enabled = false;
+
+        private long timeToLiveSeconds = 3600;
+
+        private long maxEntries = 10000;
+
+        private String invalidationTopic = "payment-catalog-invalidation";
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTimeToLiveSeconds() {
+            return this.timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public long getMaxEntries() {
+            return this.maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public String getInvalidationTopic() {
+            return this.invalidationTopic;
+        }
+
+        public void setInvalidationTopic(String invalidationTopic) {
+            this.invalidationTopic = invalidationTopic;
+        }
+    }
+
+    /**
+     * Precomputed catalog served by the catalog endpoint.
+     */
+    public static class CatalogSnapshot {
+
+        private long maxAgeMs = 300000;
+
+        public long getMaxAgeMs() {
+            return this.maxAgeMs;
+        }
+
+        public void setMaxAgeMs(long maxAgeMs) {
+            this.maxAgeMs = maxAgeMs;
+        }
+    }
+
+    /**
+     * Streaming export of the subscriptions.
+     */
+    public static class Export {
+
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return this.fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    /**
+     * Method tracing and timing of the application components.
+     */
+    public static class Tracing {
+
+        private boolean enabled = false;
+
+        private double sampleRate = 1.0;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return this.sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    /**
+     * Asynchronous shipping of the logs to a Logstash HTTP input.
+     */
+    public static class LogShipping {
+
+        private boolean enabled = false;
+
+        private String url;
+
+        private long bufferBytes = 8 * 1024 * 1024;
+
+        private long batchBytes = 256 * 1024;
+
+        private long lingerMs = 1000;
+
+        private String discardLevel = "INFO";
+
+        private double discardThreshold = 0.8;
+
+        private int connectTimeoutMs = 2000;
+
+        private int readTimeoutMs = 5000;
+
+        private int maxRetries = 3;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUrl() {
+            return this.url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public long getBufferBytes() {
+            return this.bufferBytes;
+        }
+
+        public void setBufferBytes(long bufferBytes) {
+            this.bufferBytes = bufferBytes;
+        }
+
+        public long getBatchBytes() {
+            return this.batchBytes;
+        }
+
+        public void setBatchBytes(long batchBytes) {
+            this.batchBytes = batchBytes;
+        }
+
+        public long getLingerMs() {
+            return this.lingerMs;
+        }
+
+        public void setLingerMs(long lingerMs) {
+            this.lingerMs = lingerMs;
+        }
+
+        public String getDiscardLevel() {
+            return this.discardLevel;
+        }
+
+        public void setDiscardLevel(String discardLevel) {
+            this.discardLevel = discardLevel;
+        }
+
+        public double getDiscardThreshold() {
+            return this.discardThreshold;
+        }
+
+        public void setDiscardThreshold(double discardThreshold) {
+            this.discardThreshold = discardThreshold;
+        }
+
+        public int getConnectTimeoutMs() {
+            return this.connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public int getReadTimeoutMs() {
+            return this.readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(int readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public int getMaxRetries() {
+            return this.maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * Checkout of many subscriptions in one request.
+     */
+    public static class BulkCheckout {
+
+        private int maxItems = 500;
+
+        private int parallelism = 8;
+
+        private double ratePerSecond = 20;
+
+        public int getMaxItems() {
+            return this.maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public int getParallelism() {
+            return this.parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public double getRatePerSecond() {
+            return this.ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package de.apnmt.payment.config;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Configuration of the Hibernate second-level cache for the product catalog.
+ * <p>
+ * The entities are mapped in payment-service-common, so their cache regions are declared through the
+ * {@code hibernate.classcache} and {@code hibernate.collectioncache} settings instead of {@code @Cache} annotations.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(prefix = "application.catalog-cache", name = "enabled", havingValue = "true")
+public class CacheConfiguration {
+
+    public static final String PRODUCT_PRICES_ROLE = Product.class.getName() + ".prices";
+
+    private static final String READ_WRITE = "read-write";
+
+    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+
+    private final ApplicationProperties.CatalogCache catalogCache;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties) {
+        this.catalogCache = applicationProperties.getCatalogCache();
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+        caffeineConfiguration.setMaximumSize(OptionalLong.of(this.catalogCache.getMaxEntries()));
+        caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(this.catalogCache.getTimeToLiveSeconds())));
+        caffeineConfiguration.setStatisticsEnabled(true);
+        this.jcacheConfiguration = caffeineConfiguration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, "true");
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.CLASS_CACHE_PREFIX + "." + Product.class.getName(), READ_WRITE);
+            hibernateProperties.put(AvailableSettings.CLASS_CACHE_PREFIX + "." + Price.class.getName(), READ_WRITE);
+            hibernateProperties.put(AvailableSettings.COLLECTION_CACHE_PREFIX + "." + PRODUCT_PRICES_ROLE, READ_WRITE);
+        };
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            this.createCache(cm, Product.class.getName());
+            this.createCache(cm, Price.class.getName());
+            this.createCache(cm, PRODUCT_PRICES_ROLE);
+            this.createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            this.createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+        };
+    }
+
+    @Bean
+    public NewTopic catalogInvalidationTopic() {
+        return TopicBuilder.name(this.catalogCache.getInvalidationTopic()).partitions(1).build();
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, this.jcacheConfiguration);
+        }
+    }
+}
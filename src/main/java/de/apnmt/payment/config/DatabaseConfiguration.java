@@ -2,21 +2,29 @@ package de.apnmt.payment.config;
 
 import java.sql.SQLException;
 
+import javax.sql.DataSource;
+import de.apnmt.payment.repository.CatalogCacheableJpaRepository;
+import liquibase.integration.spring.SpringLiquibase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
 @Configuration
-@EnableJpaRepositories({"de.apnmt.payment.common.repository"})
-@EntityScan({"de.apnmt.payment.common.domain"})
+@EnableJpaRepositories(
+    basePackages = {"de.apnmt.payment.common.repository", "de.apnmt.payment.repository"},
+    repositoryBaseClass = CatalogCacheableJpaRepository.class
+)
+@EntityScan({"de.apnmt.payment.common.domain", "de.apnmt.payment.domain"})
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
@@ -28,6 +36,25 @@ public class DatabaseConfiguration {
         this.env = env;
     }
 
+    /**
+     * Migrates the tables owned by this service, next to the changelog shipped with payment-service-common.
+     *
+     * @param dataSource           the application datasource.
+     * @param liquibaseProperties the liquibase properties.
+     * @return the liquibase instance for the service specific changelog.
+     */
+    @Bean
+    public SpringLiquibase k8sLiquibase(DataSource dataSource, LiquibaseProperties liquibaseProperties) {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:config/liquibase/k8s/master.xml");
+        liquibase.setContexts(liquibaseProperties.getContexts());
+        liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
+        liquibase.setDropFirst(false);
+        liquibase.setShouldRun(liquibaseProperties.isEnabled() && !this.env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE)));
+        return liquibase;
+    }
+
     /**
      * Open the TCP port for the H2 database, so it is available remotely.
      *
@@ -0,0 +1,18 @@
+package de.apnmt.payment.config;
+
+import de.apnmt.payment.aop.expiration.SubscriptionExpirationAspect;
+import de.apnmt.payment.service.SubscriptionExpirationSweepService;
+import de.apnmt.payment.service.SubscriptionExpiryIndexService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class ExpirationConfiguration {
+
+    @Bean
+    public SubscriptionExpirationAspect subscriptionExpirationAspect(SubscriptionExpirationSweepService sweepService, SubscriptionExpiryIndexService indexService) {
+        return new SubscriptionExpirationAspect(sweepService, indexService);
+    }
+}
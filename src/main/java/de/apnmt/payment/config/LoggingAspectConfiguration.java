@@ -1,17 +1,23 @@
 package de.apnmt.payment.config;
 
 import de.apnmt.payment.aop.logging.LoggingAspect;
+import de.apnmt.payment.aop.logging.MethodTimingEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
-import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
 @EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.tracing", name = "enabled", havingValue = "true")
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    public MethodTimingEndpoint methodTimingEndpoint() {
+        return new MethodTimingEndpoint();
+    }
+
+    @Bean
+    public LoggingAspect loggingAspect(Environment env, MethodTimingEndpoint methodTimingEndpoint, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, methodTimingEndpoint, applicationProperties.getTracing().getSampleRate());
     }
 }
@@ -2,14 +2,23 @@ package de.apnmt.payment.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.core.spi.ContextAwareBase;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.config.logging.LogShippingAppender;
+import de.apnmt.payment.config.logging.LogShippingMetrics;
 import java.util.HashMap;
 import java.util.Map;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -19,10 +28,13 @@ import tech.jhipster.config.JHipsterProperties;
 @Configuration
 public class LoggingConfiguration {
 
+    private LogShippingAppender logShippingAppender;
+
     public LoggingConfiguration(
         @Value("${spring.application.name}") String appName,
         @Value("${server.port}") String serverPort,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         ObjectMapper mapper
     ) throws JsonProcessingException {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -34,15 +46,101 @@ public class LoggingConfiguration {
 
         JHipsterProperties.Logging loggingProperties = jHipsterProperties.getLogging();
         JHipsterProperties.Logging.Logstash logstashProperties = loggingProperties.getLogstash();
+        ApplicationProperties.LogShipping logShippingProperties = applicationProperties.getLogShipping();
 
         if (loggingProperties.isUseJsonFormat()) {
             addJsonConsoleAppender(context, customFields);
         }
-        if (logstashProperties.isEnabled()) {
+        if (logShippingProperties.isEnabled()) {
+            // replaces the Logstash TCP appender, whose queue blocks or silently drops when Logstash slows down
+            this.logShippingAppender = logShippingAppender(context, customFields, logShippingProperties);
+            context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(this.logShippingAppender);
+            context.addListener(new LogShippingContextListener(this.logShippingAppender));
+        } else if (logstashProperties.isEnabled()) {
             addLogstashTcpSocketAppender(context, customFields, logstashProperties);
         }
-        if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
+        if (logShippingProperties.isEnabled()) {
+            if (loggingProperties.isUseJsonFormat()) {
+                // the listener would add the Logstash TCP appender back on every reset
+                addContextListener(context, customFields, withoutLogstash(loggingProperties));
+            }
+        } else if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
             addContextListener(context, customFields, loggingProperties);
         }
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.log-shipping", name = "enabled", havingValue = "true")
+    public LogShippingMetrics logShippingMetrics() {
+        return new LogShippingMetrics(this.logShippingAppender);
+    }
+
+    private static JHipsterProperties.Logging withoutLogstash(JHipsterProperties.Logging loggingProperties) {
+        JHipsterProperties.Logging properties = new JHipsterProperties().getLogging();
+        properties.setUseJsonFormat(loggingProperties.isUseJsonFormat());
+        properties.getLogstash().setEnabled(false);
+        return properties;
+    }
+
+    private static LogShippingAppender logShippingAppender(LoggerContext context, String customFields,
+                                                           ApplicationProperties.LogShipping properties) {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.setCustomFields(customFields);
+        encoder.start();
+
+        LogShippingAppender appender = new LogShippingAppender();
+        appender.setName(LogShippingAppender.APPENDER_NAME);
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setUrl(properties.getUrl());
+        appender.setBufferBytes(properties.getBufferBytes());
+        appender.setBatchBytes(properties.getBatchBytes());
+        appender.setLingerMs(properties.getLingerMs());
+        appender.setDiscardLevel(Level.toLevel(properties.getDiscardLevel(), Level.INFO));
+        appender.setDiscardThreshold(properties.getDiscardThreshold());
+        appender.setConnectTimeoutMs(properties.getConnectTimeoutMs());
+        appender.setReadTimeoutMs(properties.getReadTimeoutMs());
+        appender.setMaxRetries(properties.getMaxRetries());
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * Restarts the log shipping appender when the logging context is reset, keeping its buffer and metrics.
+     */
+    private static class LogShippingContextListener extends ContextAwareBase implements LoggerContextListener {
+
+        private final LogShippingAppender appender;
+
+        LogShippingContextListener(LogShippingAppender appender) {
+            this.appender = appender;
+        }
+
+        @Override
+        public boolean isResetResistant() {
+            return true;
+        }
+
+        @Override
+        public void onStart(LoggerContext context) {
+            // nothing to do
+        }
+
+        @Override
+        public void onReset(LoggerContext context) {
+            this.appender.start();
+            context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(this.appender);
+        }
+
+        @Override
+        public void onStop(LoggerContext context) {
+            // nothing to do
+        }
+
+        @Override
+        public void onLevelChange(ch.qos.logback.classic.Logger logger, Level level) {
+            // nothing to do
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package de.apnmt.payment.config;
+
+import de.apnmt.payment.aop.stripe.StripeCacheAspect;
+import de.apnmt.payment.aop.stripe.StripeMetricsAspect;
+import de.apnmt.payment.aop.stripe.StripeRateLimitAspect;
+import de.apnmt.payment.aop.stripe.StripeResilienceAspect;
+import de.apnmt.payment.service.StripeCallGuard;
+import de.apnmt.payment.service.StripeObjectCache;
+import de.apnmt.payment.service.StripeRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class StripeConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.stripe.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StripeCacheAspect stripeCacheAspect(StripeObjectCache stripeObjectCache) {
+        return new StripeCacheAspect(stripeObjectCache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.stripe.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StripeRateLimitAspect stripeRateLimitAspect(StripeRateLimiter stripeRateLimiter, MeterRegistry meterRegistry) {
+        return new StripeRateLimitAspect(stripeRateLimiter, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.stripe.resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StripeResilienceAspect stripeResilienceAspect(StripeCallGuard stripeCallGuard, StripeObjectCache stripeObjectCache,
+                                                         MeterRegistry meterRegistry) {
+        return new StripeResilienceAspect(stripeCallGuard, stripeObjectCache, meterRegistry);
+    }
+
+    @Bean
+    public StripeMetricsAspect stripeMetricsAspect(MeterRegistry meterRegistry) {
+        return new StripeMetricsAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package de.apnmt.payment.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Configuration running Tomcat requests, {@code @Async} work and scheduled jobs on virtual threads.
+ * <p>
+ * Concurrency is no longer bounded by the size of thread pools but by the resources themselves: the Hikari pool for
+ * JDBC, the webhook stage for Stripe webhooks. Only active with {@code application.virtual-threads.enabled} on a
+ * JVM supporting virtual threads.
+ */
+@Configuration
+@ConditionalOnExpression(
+    "${application.virtual-threads.enabled:false} and T(de.apnmt.payment.config.VirtualThreadSupport).isSupported()"
+)
+public class VirtualThreadConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    private final ExecutorService requestExecutor = VirtualThreadSupport.newThreadPerTaskExecutor("paymentservice-http-");
+
+    private final ExecutorService taskExecutor = VirtualThreadSupport.newThreadPerTaskExecutor("paymentservice-task-");
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        this.log.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(this.requestExecutor);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public TaskExecutorAdapter applicationTaskExecutor() {
+        return new TaskExecutorAdapter(this.taskExecutor);
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadTaskSchedulerCustomizer() {
+        return taskScheduler -> taskScheduler.setThreadFactory(VirtualThreadSupport.threadFactory("paymentservice-scheduling-"));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(applicationProperties.getVirtualThreads().getPinnedThresholdMs()));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        this.taskExecutor.shutdown();
+        this.requestExecutor.shutdown();
+        this.taskExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
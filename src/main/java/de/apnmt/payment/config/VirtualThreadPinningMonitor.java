@@ -0,0 +1,59 @@
+package de.apnmt.payment.config;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.EventSettings;
+import jdk.jfr.consumer.RecordedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams the {@code jdk.VirtualThreadPinned} JFR events of the running JVM into the
+ * {@code payment.virtual-threads.pinned} timer, so carrier threads blocked by {@code synchronized} code in the Stripe
+ * client or the JDBC driver show up in the metrics.
+ */
+class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final Timer pinnedTimer;
+
+    private final Duration threshold;
+
+    private AutoCloseable recordingStream;
+
+    VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinnedTimer = Timer.builder("payment.virtual-threads.pinned")
+            .description("Time virtual threads were pinned to their carrier thread")
+            .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    void start() {
+        try {
+            // jdk.jfr.consumer.RecordingStream is only available from Java 14 on
+            Class<?> streamType = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Object stream = streamType.getConstructor().newInstance();
+            EventSettings settings = (EventSettings) streamType.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            settings.withThreshold(this.threshold);
+            Consumer<RecordedEvent> onPinned = event -> this.pinnedTimer.record(event.getDuration());
+            streamType.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamType.getMethod("startAsync").invoke(stream);
+            this.recordingStream = (AutoCloseable) stream;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            this.log.warn("Pinned virtual threads cannot be monitored: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.recordingStream != null) {
+            this.recordingStream.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.apnmt.payment.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 while the service is still compiled for Java 11.
+ */
+public final class VirtualThreadSupport {
+
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    private VirtualThreadSupport() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= VIRTUAL_THREADS_FEATURE_VERSION;
+    }
+
+    /**
+     * Whether virtual threads are enabled by configuration and supported by the running JVM.
+     *
+     * @param applicationProperties the application properties.
+     * @return {@code true} if work should run on virtual threads.
+     */
+    public static boolean isEnabled(ApplicationProperties applicationProperties) {
+        return applicationProperties.getVirtualThreads().isEnabled() && isSupported();
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the given prefix and a counter.
+     *
+     * @param prefix the prefix of the thread names.
+     * @return the thread factory.
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task.
+     *
+     * @param prefix the prefix of the thread names.
+     * @return the executor.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM", e);
+        }
+    }
+}
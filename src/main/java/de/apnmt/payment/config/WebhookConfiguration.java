@@ -0,0 +1,78 @@
+package de.apnmt.payment.config;
+
+import de.apnmt.payment.service.WebhookDeduplicationService;
+import de.apnmt.payment.service.WebhookProcessingStage;
+import de.apnmt.payment.web.filter.WebhookBackPressureFilter;
+import de.apnmt.payment.web.filter.WebhookDeduplicationFilter;
+import de.apnmt.payment.web.filter.WebhookLaneFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+
+/**
+ * Configuration of the dedicated Stripe webhook processing stage.
+ */
+@Configuration
+public class WebhookConfiguration {
+
+    public static final String WEBHOOK_PATH = "/api/stripe/events";
+
+    private static final int WEBHOOK_FILTER_ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    /**
+     * Routes the asynchronous work of the webhooks, started on the application task executor, to the webhook stage.
+     */
+    @Bean
+    public static BeanPostProcessor webhookTaskExecutorPostProcessor(ObjectProvider<WebhookProcessingStage> stage) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                boolean applicationTaskExecutor = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME.equals(beanName) ||
+                    "taskExecutor".equals(beanName);
+                if (applicationTaskExecutor && bean instanceof AsyncListenableTaskExecutor) {
+                    return new WebhookTaskExecutor((AsyncListenableTaskExecutor) bean, stage.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<WebhookBackPressureFilter> webhookBackPressureFilter(WebhookProcessingStage stage, ApplicationProperties applicationProperties) {
+        FilterRegistrationBean<WebhookBackPressureFilter> registration = new FilterRegistrationBean<>(
+            new WebhookBackPressureFilter(stage, applicationProperties.getWebhook().getRetryAfterSeconds())
+        );
+        registration.addUrlPatterns(WEBHOOK_PATH);
+        registration.setOrder(WEBHOOK_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    /**
+     * Puts the work of the webhooks on the lane of their subscription, once the capacity for them was reserved.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.webhook.lanes", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<WebhookLaneFilter> webhookLaneFilter() {
+        FilterRegistrationBean<WebhookLaneFilter> registration = new FilterRegistrationBean<>(new WebhookLaneFilter());
+        registration.addUrlPatterns(WEBHOOK_PATH);
+        registration.setOrder(WEBHOOK_FILTER_ORDER + 2);
+        return registration;
+    }
+
+    /**
+     * Acknowledges duplicates before they take capacity of the webhook stage.
+     */
+    @Bean
+    public FilterRegistrationBean<WebhookDeduplicationFilter> webhookDeduplicationFilter(WebhookDeduplicationService deduplicationService) {
+        FilterRegistrationBean<WebhookDeduplicationFilter> registration = new FilterRegistrationBean<>(new WebhookDeduplicationFilter(deduplicationService));
+        registration.addUrlPatterns(WEBHOOK_PATH);
+        registration.setOrder(WEBHOOK_FILTER_ORDER);
+        return registration;
+    }
+}
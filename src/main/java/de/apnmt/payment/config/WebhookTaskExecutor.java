@@ -0,0 +1,78 @@
+package de.apnmt.payment.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import de.apnmt.payment.service.WebhookDispatchContext;
+import de.apnmt.payment.service.WebhookProcessingStage;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * Application task executor routing the work started while a Stripe webhook is handled to the
+ * {@link WebhookProcessingStage}, on the lane of the webhook; all other work keeps running on the shared executor.
+ */
+class WebhookTaskExecutor implements AsyncListenableTaskExecutor {
+
+    private final AsyncListenableTaskExecutor delegate;
+
+    private final WebhookProcessingStage stage;
+
+    WebhookTaskExecutor(AsyncListenableTaskExecutor delegate, WebhookProcessingStage stage) {
+        this.delegate = delegate;
+        this.stage = stage;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!this.dispatch(task)) {
+            this.delegate.execute(task);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        if (!this.dispatch(task)) {
+            this.delegate.execute(task, startTimeout);
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        return this.dispatch(future) ? future : this.delegate.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        return this.dispatch(future) ? future : this.delegate.submit(task);
+    }
+
+    @Override
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+        return this.dispatch(future) ? future : this.delegate.submitListenable(task);
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+        return this.dispatch(future) ? future : this.delegate.submitListenable(task);
+    }
+
+    private boolean dispatch(Runnable task) {
+        WebhookDispatchContext context = WebhookDispatchContext.current();
+        if (context == null) {
+            return false;
+        }
+        if (!context.takeReservation() && !this.stage.tryReserve()) {
+            throw new RejectedExecutionException("Webhook processing stage is saturated");
+        }
+        this.stage.execute(task, context.getLane(), context.nextTaskKey());
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package de.apnmt.payment.config.logging;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffer of encoded log events bounded by their size in bytes.
+ * <p>
+ * Space is reserved with a compare-and-set on the byte count, so offering never blocks: an event that does not fit
+ * below the given limit is refused and left to the caller to count as dropped.
+ */
+class LogRingBuffer {
+
+    private final Queue<byte[]> entries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Adds the entry if the buffer stays within the limit.
+     *
+     * @param entry      the encoded event.
+     * @param limitBytes the maximum number of buffered bytes including the entry.
+     * @return {@code true} if the entry was added.
+     */
+    boolean offer(byte[] entry, long limitBytes) {
+        long current;
+        do {
+            current = this.bytes.get();
+            if (current + entry.length > limitBytes) {
+                return false;
+            }
+        } while (!this.bytes.compareAndSet(current, current + entry.length));
+        this.entries.add(entry);
+        this.size.incrementAndGet();
+        return true;
+    }
+
+    byte[] poll() {
+        byte[] entry = this.entries.poll();
+        if (entry != null) {
+            this.size.decrementAndGet();
+            this.bytes.addAndGet(-entry.length);
+        }
+        return entry;
+    }
+
+    long bytes() {
+        return this.bytes.get();
+    }
+
+    int size() {
+        return this.size.get();
+    }
+}
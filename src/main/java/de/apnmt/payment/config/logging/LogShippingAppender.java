@@ -0,0 +1,282 @@
+package de.apnmt.payment.config.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Appender shipping log events to a Logstash HTTP input in gzip-compressed NDJSON batches.
+ * <p>
+ * Events are encoded on the logging thread into a {@link LogRingBuffer} bounded in bytes, and a single shipper thread
+ * sends them in batches, so a slow or unavailable Logstash never blocks the logging thread. Once the buffer is filled
+ * beyond the discard threshold, events at the discard level or below are dropped to keep the remaining space for
+ * warnings and errors; when the buffer is full, every event is dropped. Dropped events are counted per level.
+ */
+public class LogShippingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final String APPENDER_NAME = "LOG_SHIPPING";
+
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    private Encoder<ILoggingEvent> encoder;
+
+    private String url;
+
+    private long bufferBytes = 8 * 1024 * 1024;
+
+    private long batchBytes = 256 * 1024;
+
+    private long lingerMs = 1000;
+
+    private Level discardLevel = Level.INFO;
+
+    private double discardThreshold = 0.8;
+
+    private int connectTimeoutMs = 2000;
+
+    private int readTimeoutMs = 5000;
+
+    private int maxRetries = 3;
+
+    private final LogRingBuffer buffer = new LogRingBuffer();
+
+    private final Map<String, LongAdder> dropped = new ConcurrentHashMap<>();
+
+    private final LongAdder shipped = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private volatile Shipper shipper;
+
+    public LogShippingAppender() {
+        for (Level level : new Level[] { Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE }) {
+            this.dropped.put(level.toString(), new LongAdder());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (this.isStarted()) {
+            return;
+        }
+        if (this.encoder == null) {
+            this.addError("No encoder set for the appender named [" + this.name + "].");
+            return;
+        }
+        if (this.url == null) {
+            this.addError("No url set for the appender named [" + this.name + "].");
+            return;
+        }
+        Shipper shipper = new Shipper();
+        shipper.thread = new Thread(() -> this.ship(shipper), "log-shipper");
+        shipper.thread.setDaemon(true);
+        this.shipper = shipper;
+        shipper.thread.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!this.isStarted()) {
+            return;
+        }
+        super.stop();
+        Shipper shipper = this.shipper;
+        shipper.stopping = true;
+        LockSupport.unpark(shipper.thread);
+        try {
+            shipper.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        byte[] encoded = this.encoder.encode(event);
+        long limit = event.getLevel().toInt() <= this.discardLevel.toInt() ? (long) (this.bufferBytes * this.discardThreshold) : this.bufferBytes;
+        if (!this.buffer.offer(encoded, limit)) {
+            this.dropped.get(event.getLevel().toString()).increment();
+            return;
+        }
+        if (this.buffer.bytes() >= this.batchBytes) {
+            LockSupport.unpark(this.shipper.thread);
+        }
+    }
+
+    /**
+     * Ships the buffered events until stopped, then drains the buffer unless the appender was restarted meanwhile and
+     * the new shipper took over.
+     */
+    private void ship(Shipper shipper) {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(this.lingerMs);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        while (!shipper.stopping || (this.shipper == shipper && this.buffer.size() > 0)) {
+            batch.reset();
+            int events = 0;
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < this.batchBytes) {
+                byte[] entry = this.buffer.poll();
+                if (entry != null) {
+                    batch.write(entry, 0, entry.length);
+                    events++;
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (shipper.stopping || remaining <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            if (events > 0) {
+                this.send(batch, events, shipper);
+            }
+        }
+    }
+
+    private void send(ByteArrayOutputStream batch, int events, Shipper shipper) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(batch.size() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                batch.writeTo(gzip);
+            }
+            body = compressed.toByteArray();
+        } catch (IOException e) {
+            this.failed.add(events);
+            this.addWarn("Could not compress a batch of " + events + " log events", e);
+            return;
+        }
+        for (int attempt = 0; attempt <= this.maxRetries; attempt++) {
+            if (attempt > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MS << (attempt - 1)));
+            }
+            try {
+                int status = this.post(body);
+                if (status >= 200 && status < 300) {
+                    this.shipped.add(events);
+                    return;
+                }
+                if (status < 500 && status != 429) {
+                    break;
+                }
+            } catch (IOException e) {
+                if (attempt == this.maxRetries) {
+                    this.addWarn("Could not ship a batch of " + events + " log events to " + this.url, e);
+                }
+            }
+            if (shipper.stopping) {
+                break;
+            }
+        }
+        this.failed.add(events);
+    }
+
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(this.connectTimeoutMs);
+        connection.setReadTimeout(this.readTimeoutMs);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/x-ndjson");
+        connection.setRequestProperty("Content-Encoding", "gzip");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        // the response is drained so the connection can be kept alive
+        InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (response != null) {
+            try (InputStream in = response) {
+                in.readAllBytes();
+            }
+        }
+        return status;
+    }
+
+    long bufferedBytes() {
+        return this.buffer.bytes();
+    }
+
+    int bufferedEvents() {
+        return this.buffer.size();
+    }
+
+    Map<String, LongAdder> dropped() {
+        return this.dropped;
+    }
+
+    long shipped() {
+        return this.shipped.sum();
+    }
+
+    long failed() {
+        return this.failed.sum();
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setBufferBytes(long bufferBytes) {
+        this.bufferBytes = bufferBytes;
+    }
+
+    public void setBatchBytes(long batchBytes) {
+        this.batchBytes = batchBytes;
+    }
+
+    public void setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    public void setDiscardLevel(Level discardLevel) {
+        this.discardLevel = discardLevel;
+    }
+
+    public void setDiscardThreshold(double discardThreshold) {
+        this.discardThreshold = discardThreshold;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * A shipper thread with its own stop flag, so a thread still finishing its last batch after a stop is not resumed
+     * by a restart of the appender.
+     */
+    private static final class Shipper {
+
+        private Thread thread;
+
+        private volatile boolean stopping;
+    }
+}
@@ -0,0 +1,43 @@
+package de.apnmt.payment.config.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Binds the buffer and delivery state of a {@link LogShippingAppender} to the meter registry.
+ */
+public class LogShippingMetrics implements MeterBinder {
+
+    private final LogShippingAppender appender;
+
+    public LogShippingMetrics(LogShippingAppender appender) {
+        this.appender = appender;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("payment.logging.queue.bytes", this.appender, LogShippingAppender::bufferedBytes)
+            .description("Bytes of log events waiting to be shipped")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("payment.logging.queue.events", this.appender, LogShippingAppender::bufferedEvents)
+            .description("Log events waiting to be shipped")
+            .register(registry);
+        this.appender.dropped().forEach((level, count) ->
+            FunctionCounter.builder("payment.logging.dropped", count, LongAdder::sum)
+                .description("Log events dropped because the buffer was full")
+                .tag("level", level)
+                .register(registry)
+        );
+        FunctionCounter.builder("payment.logging.shipped", this.appender, LogShippingAppender::shipped)
+            .description("Log events accepted by Logstash")
+            .register(registry);
+        FunctionCounter.builder("payment.logging.failed", this.appender, LogShippingAppender::failed)
+            .description("Log events lost because their batch could not be shipped")
+            .register(registry);
+    }
+}
@@ -0,0 +1,85 @@
+package de.apnmt.payment.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A lease on one shard of the subscription expiration sweep, held by at most one instance at a time.
+ */
+@Entity
+@Table(name = "expiration_shard_lease")
+public class ExpirationShardLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "shard_id")
+    private Integer shardId;
+
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    public Integer getShardId() {
+        return this.shardId;
+    }
+
+    public ExpirationShardLease shardId(Integer shardId) {
+        this.setShardId(shardId);
+        return this;
+    }
+
+    public void setShardId(Integer shardId) {
+        this.shardId = shardId;
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getLeaseUntil() {
+        return this.leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExpirationShardLease)) {
+            return false;
+        }
+        return this.shardId != null && this.shardId.equals(((ExpirationShardLease) o).shardId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return this.getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ExpirationShardLease{" +
+            "shardId=" + this.getShardId() +
+            ", owner='" + this.getOwner() + "'" +
+            ", leaseUntil='" + this.getLeaseUntil() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,80 @@
+package de.apnmt.payment.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An instance taking part in the subscription expiration sweep, kept alive by its heartbeat.
+ */
+@Entity
+@Table(name = "expiration_sweep_member")
+public class ExpirationSweepMember implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "instance_id")
+    private String instanceId;
+
+    @NotNull
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+
+    public String getInstanceId() {
+        return this.instanceId;
+    }
+
+    public ExpirationSweepMember instanceId(String instanceId) {
+        this.setInstanceId(instanceId);
+        return this;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Instant getHeartbeatAt() {
+        return this.heartbeatAt;
+    }
+
+    public ExpirationSweepMember heartbeatAt(Instant heartbeatAt) {
+        this.setHeartbeatAt(heartbeatAt);
+        return this;
+    }
+
+    public void setHeartbeatAt(Instant heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExpirationSweepMember)) {
+            return false;
+        }
+        return this.instanceId != null && this.instanceId.equals(((ExpirationSweepMember) o).instanceId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return this.getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ExpirationSweepMember{" +
+            "instanceId='" + this.getInstanceId() + "'" +
+            ", heartbeatAt='" + this.getHeartbeatAt() + "'" +
+            "}";
+    }
+}
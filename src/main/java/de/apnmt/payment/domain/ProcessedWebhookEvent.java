@@ -0,0 +1,80 @@
+package de.apnmt.payment.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A Stripe event that was already processed, kept to acknowledge redeliveries of it.
+ */
+@Entity
+@Table(name = "processed_webhook_event")
+public class ProcessedWebhookEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+
+    @NotNull
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+
+    public String getEventId() {
+        return this.eventId;
+    }
+
+    public ProcessedWebhookEvent eventId(String eventId) {
+        this.setEventId(eventId);
+        return this;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Instant getProcessedAt() {
+        return this.processedAt;
+    }
+
+    public ProcessedWebhookEvent processedAt(Instant processedAt) {
+        this.setProcessedAt(processedAt);
+        return this;
+    }
+
+    public void setProcessedAt(Instant processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProcessedWebhookEvent)) {
+            return false;
+        }
+        return this.eventId != null && this.eventId.equals(((ProcessedWebhookEvent) o).eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return this.getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProcessedWebhookEvent{" +
+            "eventId='" + this.getEventId() + "'" +
+            ", processedAt='" + this.getProcessedAt() + "'" +
+            "}";
+    }
+}
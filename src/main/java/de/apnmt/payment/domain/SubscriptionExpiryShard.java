@@ -0,0 +1,116 @@
+package de.apnmt.payment.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The shard of the expiration sweep a subscription belongs to, with a copy of its expiration date, so an instance reads
+ * the expired subscriptions of its own shards only.
+ */
+@Entity
+@Table(name = "subscription_expiry_shard")
+public class SubscriptionExpiryShard implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "subscription_id")
+    private String subscriptionId;
+
+    @NotNull
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+
+    @NotNull
+    @Column(name = "shard_count", nullable = false)
+    private Integer shardCount;
+
+    @Column(name = "expiration_date")
+    private LocalDateTime expirationDate;
+
+    public String getSubscriptionId() {
+        return this.subscriptionId;
+    }
+
+    public SubscriptionExpiryShard subscriptionId(String subscriptionId) {
+        this.setSubscriptionId(subscriptionId);
+        return this;
+    }
+
+    public void setSubscriptionId(String subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+
+    public Integer getShard() {
+        return this.shard;
+    }
+
+    public SubscriptionExpiryShard shard(Integer shard) {
+        this.setShard(shard);
+        return this;
+    }
+
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+
+    public Integer getShardCount() {
+        return this.shardCount;
+    }
+
+    public SubscriptionExpiryShard shardCount(Integer shardCount) {
+        this.setShardCount(shardCount);
+        return this;
+    }
+
+    public void setShardCount(Integer shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public LocalDateTime getExpirationDate() {
+        return this.expirationDate;
+    }
+
+    public SubscriptionExpiryShard expirationDate(LocalDateTime expirationDate) {
+        this.setExpirationDate(expirationDate);
+        return this;
+    }
+
+    public void setExpirationDate(LocalDateTime expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SubscriptionExpiryShard)) {
+            return false;
+        }
+        return this.subscriptionId != null && this.subscriptionId.equals(((SubscriptionExpiryShard) o).subscriptionId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return this.getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SubscriptionExpiryShard{" +
+            "subscriptionId='" + this.getSubscriptionId() + "'" +
+            ", shard=" + this.getShard() +
+            ", shardCount=" + this.getShardCount() +
+            ", expirationDate='" + this.getExpirationDate() + "'" +
+            "}";
+    }
+}
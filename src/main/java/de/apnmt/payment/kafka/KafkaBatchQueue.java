@@ -0,0 +1,159 @@
+package de.apnmt.payment.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import de.apnmt.payment.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+/**
+ * Bounded in-memory queue in front of a {@link KafkaTemplate}.
+ * <p>
+ * A single drain thread collects records until either the batch size is reached or the linger time
+ * has elapsed, hands them to the producer and flushes once per batch.
+ */
+class KafkaBatchQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaBatchQueue.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final BlockingQueue<PendingRecord> queue;
+
+    private final int batchSize;
+
+    private final long lingerNanos;
+
+    private final long enqueueTimeoutMs;
+
+    private final Thread drainer;
+
+    private volatile boolean running = true;
+
+    KafkaBatchQueue(KafkaTemplate<String, Object> kafkaTemplate, ApplicationProperties.Kafka.Batching batching, String name) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.queue = new ArrayBlockingQueue<>(batching.getQueueCapacity());
+        this.batchSize = batching.getBatchSize();
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(batching.getLingerMs());
+        this.enqueueTimeoutMs = batching.getEnqueueTimeoutMs();
+        this.drainer = new Thread(this::drain, name);
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    CompletableFuture<SendResult<String, Object>> enqueue(String topic, Integer partition, String key, Object value) {
+        PendingRecord record = new PendingRecord(topic, partition, key, value);
+        try {
+            if (!this.running || !this.queue.offer(record, this.enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                record.future.completeExceptionally(new RejectedExecutionException("Kafka send queue is full or closed"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            record.future.completeExceptionally(e);
+        }
+        return record.future;
+    }
+
+    int size() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stops accepting new records and publishes everything still buffered.
+     */
+    void close() {
+        this.running = false;
+        try {
+            this.drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingRecord> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            this.publish(remaining);
+        }
+    }
+
+    private void drain() {
+        List<PendingRecord> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                PendingRecord head = this.queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (head == null) {
+                    continue;
+                }
+                batch.add(head);
+                long deadline = System.nanoTime() + this.lingerNanos;
+                while (batch.size() < this.batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRecord next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        this.queue.drainTo(batch, this.batchSize - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+                this.publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.running = false;
+                if (!batch.isEmpty()) {
+                    this.publish(batch);
+                }
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while draining Kafka send queue", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<PendingRecord> batch) {
+        log.debug("Publishing batch of {} records", batch.size());
+        for (PendingRecord record : batch) {
+            try {
+                this.kafkaTemplate.send(record.topic, record.partition, record.key, record.value).completable().whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        record.future.completeExceptionally(ex);
+                    } else {
+                        record.future.complete(result);
+                    }
+                });
+            } catch (RuntimeException e) {
+                record.future.completeExceptionally(e);
+            }
+        }
+        this.kafkaTemplate.flush();
+    }
+
+    private static final class PendingRecord {
+
+        private final String topic;
+
+        private final Integer partition;
+
+        private final String key;
+
+        private final Object value;
+
+        private final CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+
+        private PendingRecord(String topic, Integer partition, String key, Object value) {
+            this.topic = topic;
+            this.partition = partition;
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package de.apnmt.payment.kafka;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 import de.apnmt.common.event.ApnmtEvent;
 import de.apnmt.common.event.value.OrganizationActivationEventDTO;
 import de.apnmt.common.sender.ApnmtEventSender;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.PartitionInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,16 +30,150 @@ public class OrganizationActivationEventSender implements ApnmtEventSender<Organ
 
     private static final Logger log = LoggerFactory.getLogger(OrganizationActivationEventSender.class);
 
+    // the default of the producer
+    private static final long DEFAULT_METADATA_MAX_AGE_MS = 300000;
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    public OrganizationActivationEventSender(KafkaTemplate<String, Object> kafkaTemplate) {
+    private final KafkaBatchQueue batchQueue;
+
+    private final PartitionStrategy partitionStrategy;
+
+    private final Map<String, PartitionCount> partitionCounts = new ConcurrentHashMap<>();
+
+    private final long metadataMaxAgeNanos;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    public OrganizationActivationEventSender(KafkaTemplate<String, Object> kafkaTemplate, ApplicationProperties applicationProperties, MeterRegistry meterRegistry,
+                                             ObjectProvider<PartitionStrategy> partitionStrategy) {
         this.kafkaTemplate = kafkaTemplate;
+        this.partitionStrategy = partitionStrategy.getIfAvailable();
+        this.metadataMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(metadataMaxAgeMs(kafkaTemplate));
+        ApplicationProperties.Kafka.Batching batching = applicationProperties.getKafka().getBatching();
+        if (batching.isEnabled()) {
+            this.batchQueue = new KafkaBatchQueue(kafkaTemplate, batching, "organization-activation-sender");
+            Gauge.builder("payment.kafka.send.queue", this.batchQueue, KafkaBatchQueue::size).register(meterRegistry);
+        } else {
+            this.batchQueue = null;
+        }
+        this.sentCounter = Counter.builder("payment.kafka.send").tag("result", "success").register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.kafka.send").tag("result", "failure").register(meterRegistry);
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public void send(String topic, ApnmtEvent<OrganizationActivationEventDTO> event) {
-        log.info("Send event {} to topic {}", event, topic);
-        this.kafkaTemplate.send(topic, event);
+        this.sendAsync(topic, event);
+    }
+
+    /**
+     * Sends the event keyed by its organization and reports the outcome of the send. The partition is chosen by the
+     * key partitioner of the producer, or by the {@link PartitionStrategy} bean if one is declared.
+     *
+     * @param topic the topic to send the event to.
+     * @param event the event to send.
+     * @return a future completed once the broker acknowledged the record, the time until then, including the time spent
+     * in the batch queue, is recorded as {@code payment.kafka.ack}.
+     */
+    public CompletableFuture<SendResult<String, Object>> sendAsync(String topic, ApnmtEvent<OrganizationActivationEventDTO> event) {
+        log.debug("Send event {} to topic {}", event, topic);
+        long start = System.nanoTime();
+        String key = keyOf(event);
+        Integer partition = this.partitionStrategy != null ? this.partitionStrategy.partition(topic, key, this.partitionCount(topic)) : null;
+        CompletableFuture<SendResult<String, Object>> future;
+        if (this.batchQueue != null) {
+            future = this.batchQueue.enqueue(topic, partition, key, event);
+        } else {
+            future = this.kafkaTemplate.send(topic, partition, key, event).completable();
+        }
+        return future.whenComplete((result, ex) -> {
+            this.ackTimer(topic, ex == null).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                this.failedCounter.increment();
+                log.error("Failed to send event {} to topic {}", event, topic, ex);
+            } else {
+                this.sentCounter.increment();
+            }
+        });
+    }
+
+    /**
+     * Sends all events and completes once every one of them was acknowledged.
+     *
+     * @param topic  the topic to send the events to.
+     * @param events the events to send.
+     * @return a future completed when the whole batch was acknowledged, or exceptionally if one send failed.
+     */
+    public CompletableFuture<Void> sendAll(String topic, Collection<ApnmtEvent<OrganizationActivationEventDTO>> events) {
+        return CompletableFuture.allOf(events.stream().map(event -> this.sendAsync(topic, event)).toArray(CompletableFuture[]::new));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (this.batchQueue != null) {
+            this.batchQueue.close();
+        }
+    }
+
+    private Timer ackTimer(String topic, boolean success) {
+        return Timer.builder("payment.kafka.ack")
+            .description("Time until a sent event was acknowledged by the broker")
+            .tag("topic", topic)
+            .tag("result", success ? "success" : "failure")
+            .register(this.meterRegistry);
+    }
+
+    /**
+     * Returns the number of partitions of the topic, read again once it is older than the {@code metadata.max.age.ms}
+     * of the producer, so partitions added to the topic are picked up like the producer does.
+     */
+    private int partitionCount(String topic) {
+        long now = System.nanoTime();
+        PartitionCount count = this.partitionCounts.get(topic);
+        if (count == null || now - count.readAt >= this.metadataMaxAgeNanos) {
+            List<PartitionInfo> partitions = this.kafkaTemplate.partitionsFor(topic);
+            if (partitions == null || partitions.isEmpty()) {
+                return count != null ? count.value : 0;
+            }
+            count = new PartitionCount(partitions.size(), now);
+            this.partitionCounts.put(topic, count);
+        }
+        return count.value;
+    }
+
+    private static long metadataMaxAgeMs(KafkaTemplate<String, Object> kafkaTemplate) {
+        Object maxAge = kafkaTemplate.getProducerFactory().getConfigurationProperties().get(ProducerConfig.METADATA_MAX_AGE_CONFIG);
+        if (maxAge instanceof Number) {
+            return ((Number) maxAge).longValue();
+        }
+        if (maxAge instanceof String) {
+            return Long.parseLong(((String) maxAge).trim());
+        }
+        return DEFAULT_METADATA_MAX_AGE_MS;
+    }
+
+    static String keyOf(ApnmtEvent<OrganizationActivationEventDTO> event) {
+        if (event.getValue() == null || event.getValue().getOrganizationId() == null) {
+            return null;
+        }
+        return String.valueOf(event.getValue().getOrganizationId());
+    }
+
+    private static final class PartitionCount {
+
+        private final int value;
+
+        private final long readAt;
+
+        private PartitionCount(int value, long readAt) {
+            this.value = value;
+            this.readAt = readAt;
+        }
     }
 
 }
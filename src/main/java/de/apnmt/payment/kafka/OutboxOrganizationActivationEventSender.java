@@ -0,0 +1,51 @@
+package de.apnmt.payment.kafka;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.common.sender.ApnmtEventSender;
+import de.apnmt.payment.domain.OutboxEvent;
+import de.apnmt.payment.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Sender used when the outbox is enabled: events are stored in the {@code outbox_event} table within the caller's
+ * transaction and published by the {@link de.apnmt.payment.service.OutboxRelayService}.
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(prefix = "application.outbox", name = "enabled", havingValue = "true")
+public class OutboxOrganizationActivationEventSender implements ApnmtEventSender<OrganizationActivationEventDTO> {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxOrganizationActivationEventSender.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxOrganizationActivationEventSender(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional
+    public void send(String topic, ApnmtEvent<OrganizationActivationEventDTO> event) {
+        log.debug("Store event {} for topic {} in outbox", event, topic);
+        try {
+            OutboxEvent outboxEvent = new OutboxEvent().topic(topic).payload(this.objectMapper.writeValueAsString(event)).createdAt(Instant.now());
+            this.outboxEventRepository.save(outboxEvent);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event could not be serialized", e);
+        }
+    }
+
+}
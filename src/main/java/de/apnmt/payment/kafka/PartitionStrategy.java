@@ -0,0 +1,25 @@
+package de.apnmt.payment.kafka;
+
+/**
+ * Strategy choosing the partition of a keyed record.
+ * <p>
+ * Without a bean of this type, records are partitioned by the key partitioner of the producer: the murmur2 hash of the
+ * key, so all records of one organization land on the same partition in send order. Declare a bean to replace it.
+ * <p>
+ * Adding partitions to a topic reshuffles the keys with either: once the producer and the sender see the new partition
+ * count, the records of an organization may go to another partition than its earlier records, so a consumer may read
+ * them before the earlier ones were consumed.
+ */
+@FunctionalInterface
+public interface PartitionStrategy {
+
+    /**
+     * Chooses the partition for a record.
+     *
+     * @param topic         the topic the record is sent to.
+     * @param key           the record key, may be {@code null}.
+     * @param numPartitions the number of partitions of the topic.
+     * @return the partition, or {@code null} to leave the choice to the producer.
+     */
+    Integer partition(String topic, String key, int numPartitions);
+}
@@ -0,0 +1,52 @@
+package de.apnmt.payment.repository;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+/**
+ * Repository base class caching the {@code findAll} and {@code count} queries of the catalog entities in the query
+ * cache, as their repositories are part of payment-service-common and cannot be annotated here. The hint has no effect
+ * while the query cache is disabled.
+ *
+ * @param <T>  the type of the entity.
+ * @param <ID> the type of the id of the entity.
+ */
+public class CatalogCacheableJpaRepository<T, ID extends Serializable> extends SimpleJpaRepository<T, ID> {
+
+    private static final Set<Class<?>> CATALOG_TYPES = Set.of(Product.class, Price.class);
+
+    private final boolean cacheable;
+
+    public CatalogCacheableJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.cacheable = CATALOG_TYPES.contains(entityInformation.getJavaType());
+    }
+
+    @Override
+    protected <S extends T> TypedQuery<S> getQuery(Specification<S> spec, Class<S> domainClass, Sort sort) {
+        TypedQuery<S> query = super.getQuery(spec, domainClass, sort);
+        if (this.cacheable) {
+            query.setHint(QueryHints.CACHEABLE, true);
+        }
+        return query;
+    }
+
+    @Override
+    protected <S extends T> TypedQuery<Long> getCountQuery(Specification<S> spec, Class<S> domainClass) {
+        TypedQuery<Long> query = super.getCountQuery(spec, domainClass);
+        if (this.cacheable) {
+            query.setHint(QueryHints.CACHEABLE, true);
+        }
+        return query;
+    }
+}
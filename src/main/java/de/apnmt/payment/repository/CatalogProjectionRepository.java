@@ -0,0 +1,80 @@
+package de.apnmt.payment.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import de.apnmt.payment.common.domain.enumeration.Currency;
+import de.apnmt.payment.common.domain.enumeration.Interval;
+import de.apnmt.payment.common.service.dto.PriceDTO;
+import de.apnmt.payment.service.dto.CatalogProductDTO;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Read-only access to the product catalog selecting the columns of the DTOs directly.
+ * <p>
+ * No entity is hydrated, so the reads cost neither persistence context entries nor dirty-checking snapshots. Callers
+ * are expected to run in read-only transactions, which also switch the session to manual flushing.
+ */
+@Repository
+public class CatalogProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public CatalogProjectionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @return all products ordered by id, without their prices.
+     */
+    public List<CatalogProductDTO> findAllProducts() {
+        List<Tuple> rows = this.entityManager
+            .createQuery("select product.id as id, product.name as name, product.description as description from Product product order by product.id",
+                Tuple.class)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .getResultList();
+        List<CatalogProductDTO> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            CatalogProductDTO product = new CatalogProductDTO();
+            product.setId(row.get("id", String.class));
+            product.setName(row.get("name", String.class));
+            product.setDescription(row.get("description", String.class));
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * @return the prices of all products ordered by id, by the id of their product.
+     */
+    public Map<String, List<PriceDTO>> findAllPricesByProduct() {
+        List<Tuple> rows = this.entityManager
+            .createQuery(
+                "select price.id as id, price.nickname as nickname, price.amount as amount, price.currency as currency, price.interval as priceInterval, " +
+                "price.product.id as productId from Price price order by price.id",
+                Tuple.class
+            )
+            .setHint(QueryHints.HINT_READONLY, true)
+            .getResultList();
+        Map<String, List<PriceDTO>> prices = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            prices.computeIfAbsent(row.get("productId", String.class), productId -> new ArrayList<>()).add(toPriceDTO(row));
+        }
+        return prices;
+    }
+
+    private static PriceDTO toPriceDTO(Tuple row) {
+        PriceDTO price = new PriceDTO();
+        price.setId(row.get("id", String.class));
+        price.setNickname(row.get("nickname", String.class));
+        price.setAmount(row.get("amount", Long.class));
+        price.setCurrency(row.get("currency", Currency.class));
+        price.setInterval(row.get("priceInterval", Interval.class));
+        return price;
+    }
+}
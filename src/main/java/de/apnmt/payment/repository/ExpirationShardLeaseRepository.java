@@ -0,0 +1,41 @@
+package de.apnmt.payment.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import de.apnmt.payment.domain.ExpirationShardLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the ExpirationShardLease entity.
+ */
+@Repository
+public interface ExpirationShardLeaseRepository extends JpaRepository<ExpirationShardLease, Integer> {
+
+    List<ExpirationShardLease> findAllByShardIdLessThanOrderByShardId(Integer shardCount);
+
+    /**
+     * Claims or renews a lease. Succeeds only if the shard is free, expired or already held by the given owner.
+     *
+     * @return 1 if the lease is now held by the owner, 0 otherwise.
+     */
+    @Modifying
+    @Query(
+        "update ExpirationShardLease lease set lease.owner = :owner, lease.leaseUntil = :leaseUntil " +
+        "where lease.shardId = :shardId and (lease.owner is null or lease.owner = :owner or lease.leaseUntil < :now)"
+    )
+    int claim(@Param("shardId") Integer shardId, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update ExpirationShardLease lease set lease.owner = null, lease.leaseUntil = null where lease.owner = :owner and lease.shardId in :shardIds")
+    int release(@Param("owner") String owner, @Param("shardIds") Collection<Integer> shardIds);
+
+    @Modifying
+    @Query("update ExpirationShardLease lease set lease.owner = null, lease.leaseUntil = null where lease.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,16 @@
+package de.apnmt.payment.repository;
+
+import java.time.Instant;
+
+import de.apnmt.payment.domain.ExpirationSweepMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the ExpirationSweepMember entity.
+ */
+@Repository
+public interface ExpirationSweepMemberRepository extends JpaRepository<ExpirationSweepMember, String> {
+
+    long countByHeartbeatAtAfter(Instant since);
+}
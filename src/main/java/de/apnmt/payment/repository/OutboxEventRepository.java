@@ -0,0 +1,26 @@
+package de.apnmt.payment.repository;
+
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import de.apnmt.payment.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events with {@code FOR UPDATE}. A relay on another replica waits for the rows until the
+     * batch holding them was published or rolled back, so the batches are published one after the other in id order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select outboxEvent from OutboxEvent outboxEvent order by outboxEvent.id")
+    List<OutboxEvent> findNextBatchForUpdate(Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package de.apnmt.payment.repository;
+
+import java.time.Instant;
+
+import de.apnmt.payment.domain.ProcessedWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the ProcessedWebhookEvent entity.
+ */
+@Repository
+public interface ProcessedWebhookEventRepository extends JpaRepository<ProcessedWebhookEvent, String> {
+
+    @Modifying
+    @Query("delete from ProcessedWebhookEvent processedWebhookEvent where processedWebhookEvent.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,90 @@
+package de.apnmt.payment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.service.dto.SubscriptionExpiryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keyset-paginated read access to the expiration dates of the Subscription entity.
+ * <p>
+ * Pages are ordered by {@code (expirationDate, id)} and continue after the last row of the previous page, so the cost
+ * of a page does not depend on how many rows were read before. The sharded variants read the expired subscriptions of
+ * the given shards only, through the index of {@code subscription_expiry_shard}.
+ */
+@Repository
+public interface SubscriptionExpiryRepository extends org.springframework.data.repository.Repository<Subscription, String> {
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where subscription.expirationDate <= :now " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where subscription.expirationDate <= :now " +
+        "and (subscription.expirationDate > :lastExpirationDate " +
+        "or (subscription.expirationDate = :lastExpirationDate and subscription.id > :lastId)) " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findExpiredAfter(@Param("now") LocalDateTime now, @Param("lastExpirationDate") LocalDateTime lastExpirationDate,
+                                                 @Param("lastId") String lastId, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, shard.expirationDate, customer.organizationId) " +
+        "from SubscriptionExpiryShard shard, Subscription subscription join subscription.customer customer " +
+        "where shard.subscriptionId = subscription.id and shard.shard in :shards " +
+        "and shard.expirationDate <= :now and subscription.expirationDate <= :now " +
+        "order by shard.expirationDate, shard.subscriptionId"
+    )
+    List<SubscriptionExpiryDTO> findExpiredInShards(@Param("shards") Collection<Integer> shards, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, shard.expirationDate, customer.organizationId) " +
+        "from SubscriptionExpiryShard shard, Subscription subscription join subscription.customer customer " +
+        "where shard.subscriptionId = subscription.id and shard.shard in :shards " +
+        "and shard.expirationDate <= :now and subscription.expirationDate <= :now " +
+        "and (shard.expirationDate > :lastExpirationDate " +
+        "or (shard.expirationDate = :lastExpirationDate and shard.subscriptionId > :lastId)) " +
+        "order by shard.expirationDate, shard.subscriptionId"
+    )
+    List<SubscriptionExpiryDTO> findExpiredInShardsAfter(@Param("shards") Collection<Integer> shards, @Param("now") LocalDateTime now,
+                                                         @Param("lastExpirationDate") LocalDateTime lastExpirationDate,
+                                                         @Param("lastId") String lastId, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where subscription.id in :ids and subscription.expirationDate <= :now"
+    )
+    List<SubscriptionExpiryDTO> findExpiredByIds(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where subscription.expirationDate > :now " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findUpcoming(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where subscription.expirationDate > :now " +
+        "and (subscription.expirationDate > :lastExpirationDate " +
+        "or (subscription.expirationDate = :lastExpirationDate and subscription.id > :lastId)) " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findUpcomingAfter(@Param("now") LocalDateTime now, @Param("lastExpirationDate") LocalDateTime lastExpirationDate,
+                                                  @Param("lastId") String lastId, Pageable pageable);
+}
@@ -0,0 +1,44 @@
+package de.apnmt.payment.repository;
+
+import java.util.List;
+
+import de.apnmt.payment.domain.SubscriptionExpiryShard;
+import de.apnmt.payment.service.dto.SubscriptionExpiryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SubscriptionExpiryShard entity.
+ */
+@Repository
+public interface SubscriptionExpiryShardRepository extends JpaRepository<SubscriptionExpiryShard, String> {
+
+    /**
+     * Finds the subscriptions written before their shard was maintained, e.g. before sharding was enabled.
+     */
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from Subscription subscription join subscription.customer customer " +
+        "where not exists (select shard.subscriptionId from SubscriptionExpiryShard shard where shard.subscriptionId = subscription.id) " +
+        "order by subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findUnsharded(Pageable pageable);
+
+    /**
+     * Finds the subscriptions whose shard was computed for another shard count, or whose expiration date was changed
+     * without going through Hibernate.
+     */
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionExpiryDTO(subscription.id, subscription.expirationDate, customer.organizationId) " +
+        "from SubscriptionExpiryShard shard, Subscription subscription join subscription.customer customer " +
+        "where shard.subscriptionId = subscription.id " +
+        "and (shard.shardCount <> :shardCount or shard.expirationDate <> subscription.expirationDate " +
+        "or (shard.expirationDate is null and subscription.expirationDate is not null) " +
+        "or (shard.expirationDate is not null and subscription.expirationDate is null)) " +
+        "order by subscription.id"
+    )
+    List<SubscriptionExpiryDTO> findOutdated(@Param("shardCount") Integer shardCount, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package de.apnmt.payment.repository;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+
+/**
+ * Parts of the Subscription graph loaded together with the subscriptions, so a read path selects what it maps in a
+ * single statement instead of initializing the lazy associations row by row.
+ */
+public enum SubscriptionFetchPlan {
+    /**
+     * The subscriptions with their customers, items, prices and products.
+     */
+    FULL;
+
+    /**
+     * Creates the fetch graph of this plan.
+     *
+     * @param entityManager the entity manager to create the graph with.
+     * @return the graph.
+     */
+    public EntityGraph<Subscription> graph(EntityManager entityManager) {
+        EntityGraph<Subscription> graph = entityManager.createEntityGraph(Subscription.class);
+        graph.addAttributeNodes("customer");
+        Subgraph<SubscriptionItem> items = graph.addSubgraph("subscriptionItems");
+        Subgraph<Price> price = items.addSubgraph("price");
+        price.addAttributeNodes("product");
+        return graph;
+    }
+}
@@ -0,0 +1,34 @@
+package de.apnmt.payment.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import de.apnmt.payment.common.domain.Subscription;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Loads subscriptions with the associations of a {@link SubscriptionFetchPlan} as a fetch graph.
+ * <p>
+ * The graph joins at most one collection, the subscription items, so the roots are de-duplicated in memory and the
+ * statement count does not depend on the number of items.
+ */
+@Repository
+public class SubscriptionGraphRepository {
+
+    private final EntityManager entityManager;
+
+    public SubscriptionGraphRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public List<Subscription> findAllByIdIn(Collection<String> ids, SubscriptionFetchPlan plan) {
+        return this.entityManager
+            .createQuery("select distinct subscription from Subscription subscription where subscription.id in :ids", Subscription.class)
+            .setParameter("ids", ids)
+            .setHint(QueryHints.HINT_FETCHGRAPH, plan.graph(this.entityManager))
+            .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+            .getResultList();
+    }
+}
@@ -0,0 +1,50 @@
+package de.apnmt.payment.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.service.dto.SubscriptionCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keyset-paginated listing of the Subscription entity.
+ * <p>
+ * Subscriptions without an expiration date come first, ordered by id, followed by all others ordered by
+ * {@code (expirationDate, id)}. A page selects the keys only and the entities are loaded by id afterwards through the
+ * {@link SubscriptionGraphRepository}, so the ordered scan never touches more than the keys of one page.
+ */
+@Repository
+public interface SubscriptionSeekRepository extends org.springframework.data.repository.Repository<Subscription, String> {
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionCursor(subscription.expirationDate, subscription.id) " +
+        "from Subscription subscription " +
+        "where subscription.expirationDate is null and subscription.id > :lastId " +
+        "order by subscription.id"
+    )
+    List<SubscriptionCursor> findUndatedAfter(@Param("lastId") String lastId, Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionCursor(subscription.expirationDate, subscription.id) " +
+        "from Subscription subscription " +
+        "where subscription.expirationDate is not null " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionCursor> findDated(Pageable pageable);
+
+    @Query(
+        "select new de.apnmt.payment.service.dto.SubscriptionCursor(subscription.expirationDate, subscription.id) " +
+        "from Subscription subscription " +
+        "where subscription.expirationDate > :lastExpirationDate " +
+        "or (subscription.expirationDate = :lastExpirationDate and subscription.id > :lastId) " +
+        "order by subscription.expirationDate, subscription.id"
+    )
+    List<SubscriptionCursor> findDatedAfter(@Param("lastExpirationDate") LocalDateTime lastExpirationDate, @Param("lastId") String lastId,
+                                            Pageable pageable);
+
+    long count();
+}
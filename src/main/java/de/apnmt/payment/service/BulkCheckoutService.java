@@ -0,0 +1,302 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import com.stripe.exception.StripeException;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.ApnmtEventType;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.common.sender.ApnmtEventSender;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.repository.CustomerRepository;
+import de.apnmt.payment.common.repository.PriceRepository;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.config.VirtualThreadSupport;
+import de.apnmt.payment.kafka.OrganizationActivationEventSender;
+import de.apnmt.payment.service.dto.BulkCheckoutRequestDTO;
+import de.apnmt.payment.service.dto.BulkCheckoutResultDTO;
+import de.apnmt.payment.service.stripe.BulkCheckoutStripeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service creating many subscriptions in one request, for the onboarding of several organizations at once.
+ * <p>
+ * The Stripe round trips of the checkouts run concurrently, bounded by the configured parallelism and spaced to stay
+ * below the configured rate. The created subscriptions are then persisted in a single transaction, flushed in chunks
+ * of the JDBC batch size so the inserts are batched. If that transaction fails, every subscription is persisted in a
+ * transaction of its own, so only the subscriptions that cannot be stored are reported as failed. A failed checkout does
+ * not affect the others, the outcome of every checkout is reported in the order of the request.
+ */
+@Service
+public class BulkCheckoutService {
+
+    private static final String THREAD_NAME_PREFIX = "paymentservice-checkout-";
+
+    /**
+     * Expiration of a new subscription until its first invoice is paid, like the single checkout.
+     */
+    private static final long PROVISIONAL_EXPIRATION_HOURS = 1;
+
+    private final Logger log = LoggerFactory.getLogger(BulkCheckoutService.class);
+
+    private final BulkCheckoutStripeService stripeService;
+
+    private final CustomerRepository customerRepository;
+
+    private final PriceRepository priceRepository;
+
+    private final ApnmtEventSender<OrganizationActivationEventDTO> eventSender;
+
+    private final OrganizationActivationEventSender kafkaEventSender;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final int jdbcBatchSize;
+
+    private final ExecutorService executor;
+
+    private final Semaphore parallelism;
+
+    private final RatePacer pacer;
+
+    public BulkCheckoutService(BulkCheckoutStripeService stripeService, CustomerRepository customerRepository, PriceRepository priceRepository,
+                               ApnmtEventSender<OrganizationActivationEventDTO> eventSender, OrganizationActivationEventSender kafkaEventSender,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int jdbcBatchSize) {
+        this.stripeService = stripeService;
+        this.customerRepository = customerRepository;
+        this.priceRepository = priceRepository;
+        this.eventSender = eventSender;
+        this.kafkaEventSender = kafkaEventSender;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+        ApplicationProperties.BulkCheckout bulkCheckout = applicationProperties.getBulkCheckout();
+        this.parallelism = new Semaphore(bulkCheckout.getParallelism());
+        this.pacer = new RatePacer(bulkCheckout.getRatePerSecond());
+        if (VirtualThreadSupport.isEnabled(applicationProperties)) {
+            this.executor = VirtualThreadSupport.newThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(bulkCheckout.getParallelism(), bulkCheckout.getParallelism(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+    }
+
+    /**
+     * Creates the subscriptions of all checkouts.
+     *
+     * @param requests the checkouts.
+     * @return the outcome of every checkout, in the order of the requests.
+     */
+    public List<BulkCheckoutResultDTO> checkout(List<BulkCheckoutRequestDTO> requests) {
+        BulkCheckoutResultDTO[] results = new BulkCheckoutResultDTO[requests.size()];
+        Map<String, Customer> customers = this.customerRepository.findAllById(
+            requests.stream().map(BulkCheckoutRequestDTO::getCustomerId).filter(id -> id != null).collect(Collectors.toSet())
+        ).stream().collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Set<String> prices = this.priceRepository.findAllById(
+            requests.stream().filter(request -> request.getItems() != null).flatMap(request -> request.getItems().stream())
+                .map(BulkCheckoutRequestDTO.Item::getPriceId).filter(id -> id != null).collect(Collectors.toSet())
+        ).stream().map(Price::getId).collect(Collectors.toSet());
+
+        List<CompletableFuture<Void>> checkouts = new ArrayList<>(requests.size());
+        List<Created> created = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            BulkCheckoutRequestDTO request = requests.get(i);
+            String error = validate(request, customers, prices);
+            if (error != null) {
+                results[index] = BulkCheckoutResultDTO.failed(index, request.getCustomerId(), error);
+                continue;
+            }
+            checkouts.add(CompletableFuture.runAsync(() -> {
+                try {
+                    com.stripe.model.Subscription subscription = this.callStripe(request);
+                    synchronized (created) {
+                        created.add(new Created(index, request, customers.get(request.getCustomerId()), subscription));
+                    }
+                } catch (StripeException e) {
+                    results[index] = BulkCheckoutResultDTO.failed(index, request.getCustomerId(), e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results[index] = BulkCheckoutResultDTO.failed(index, request.getCustomerId(), "Interrupted");
+                } catch (RuntimeException e) {
+                    this.log.warn("Checkout {} of customer {} failed", index, request.getCustomerId(), e);
+                    results[index] = BulkCheckoutResultDTO.failed(index, request.getCustomerId(), e.getMessage());
+                }
+            }, this.executor));
+        }
+        CompletableFuture.allOf(checkouts.toArray(CompletableFuture[]::new)).join();
+
+        try {
+            this.persist(created);
+            created.forEach(checkout -> results[checkout.index] = created(checkout));
+        } catch (RuntimeException e) {
+            this.log.warn("Persisting {} subscriptions of a bulk checkout failed, persisting them one by one", created.size(), e);
+            for (Created checkout : created) {
+                try {
+                    this.persist(List.of(checkout));
+                    results[checkout.index] = created(checkout);
+                } catch (RuntimeException single) {
+                    // the Stripe subscription exists, the webhooks of its invoices reconcile it
+                    this.log.error("Persisting subscription {} of a bulk checkout failed", checkout.subscription.getId(), single);
+                    results[checkout.index] = BulkCheckoutResultDTO.failed(checkout.index, checkout.request.getCustomerId(),
+                        "Subscription " + checkout.subscription.getId() + " was created in Stripe but could not be stored");
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private com.stripe.model.Subscription callStripe(BulkCheckoutRequestDTO request) throws StripeException, InterruptedException {
+        this.parallelism.acquire();
+        try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.BULK)) {
+            this.pacer.acquire();
+            this.stripeService.attachPaymentMethod(request.getCustomerId(), request.getPaymentMethod());
+            this.pacer.acquire();
+            this.stripeService.setDefaultPaymentMethod(request.getCustomerId(), request.getPaymentMethod());
+            this.pacer.acquire();
+            return this.stripeService.createSubscription(request.getCustomerId(), request.getItems());
+        } finally {
+            this.parallelism.release();
+        }
+    }
+
+    private void persist(List<Created> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        boolean outbox = this.applicationProperties.getOutbox().isEnabled();
+        this.transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime expirationDate = LocalDateTime.now().plusHours(PROVISIONAL_EXPIRATION_HOURS);
+            int pending = 0;
+            for (Created checkout : created) {
+                Subscription subscription = new Subscription();
+                subscription.setId(checkout.subscription.getId());
+                subscription.setExpirationDate(expirationDate);
+                subscription.setCustomer(this.entityManager.getReference(Customer.class, checkout.customer.getId()));
+                this.entityManager.persist(subscription);
+                for (com.stripe.model.SubscriptionItem stripeItem : checkout.subscription.getItems().getData()) {
+                    SubscriptionItem item = new SubscriptionItem();
+                    item.setId(stripeItem.getId());
+                    item.setQuantity(stripeItem.getQuantity().intValue());
+                    item.setPrice(this.entityManager.getReference(Price.class, stripeItem.getPrice().getId()));
+                    subscription.addSubscriptionItem(item);
+                    this.entityManager.persist(item);
+                    pending++;
+                }
+                if (outbox) {
+                    // stored in the transaction, relayed after commit
+                    this.eventSender.send(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, activationEvent(checkout.customer.getOrganizationId()));
+                }
+                if (++pending >= this.jdbcBatchSize) {
+                    this.entityManager.flush();
+                    this.entityManager.clear();
+                    pending = 0;
+                }
+            }
+        });
+        if (!outbox) {
+            // failures are counted and logged by the sender
+            this.kafkaEventSender.sendAll(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC,
+                created.stream().map(checkout -> activationEvent(checkout.customer.getOrganizationId())).collect(Collectors.toList()));
+        }
+    }
+
+    private static BulkCheckoutResultDTO created(Created checkout) {
+        return BulkCheckoutResultDTO.created(checkout.index, checkout.request.getCustomerId(), checkout.subscription.getId());
+    }
+
+    private static String validate(BulkCheckoutRequestDTO request, Map<String, Customer> customers, Set<String> prices) {
+        if (request.getCustomerId() == null || !customers.containsKey(request.getCustomerId())) {
+            return "Unknown customer";
+        }
+        if (request.getPaymentMethod() == null || request.getPaymentMethod().isEmpty()) {
+            return "Payment method required";
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            return "At least one item required";
+        }
+        Set<String> priceIds = new HashSet<>();
+        for (BulkCheckoutRequestDTO.Item item : request.getItems()) {
+            if (item.getPriceId() == null || !prices.contains(item.getPriceId())) {
+                return "Unknown price " + item.getPriceId();
+            }
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                return "Quantity must be positive";
+            }
+            if (!priceIds.add(item.getPriceId())) {
+                return "Duplicate price " + item.getPriceId();
+            }
+        }
+        return null;
+    }
+
+    private static ApnmtEvent<OrganizationActivationEventDTO> activationEvent(Long organizationId) {
+        OrganizationActivationEventDTO value = new OrganizationActivationEventDTO();
+        value.setOrganizationId(organizationId);
+        value.setActive(true);
+        ApnmtEvent<OrganizationActivationEventDTO> event = new ApnmtEvent<>();
+        event.setType(ApnmtEventType.organizationActivationChanged);
+        event.setValue(value);
+        return event;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * A checkout whose Stripe subscription was created.
+     */
+    private static final class Created {
+
+        private final int index;
+
+        private final BulkCheckoutRequestDTO request;
+
+        private final Customer customer;
+
+        private final com.stripe.model.Subscription subscription;
+
+        private Created(int index, BulkCheckoutRequestDTO request, Customer customer, com.stripe.model.Subscription subscription) {
+            this.index = index;
+            this.request = request;
+            this.customer = customer;
+            this.subscription = subscription;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.apnmt.payment.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.config.CacheConfiguration;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service keeping the second-level cache of the product catalog consistent across the replicas.
+ * <p>
+ * Every committed change of a product or price is broadcast on the invalidation topic, keyed by the evicted region
+ * entry. Each replica reads all partitions of the topic from their end, assigned manually and without a consumer group,
+ * so no group or committed offsets are left behind by the replicas, and evicts the entries changed by the others, as
+ * well as the cached catalog queries.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.catalog-cache", name = "enabled", havingValue = "true")
+public class CatalogCacheInvalidationService {
+
+    static final String PRODUCT_KEY = "Product:";
+
+    static final String PRICE_KEY = "Price:";
+
+    static final String PRODUCT_PRICES_KEY = "Product.prices:";
+
+    private final Logger log = LoggerFactory.getLogger(CatalogCacheInvalidationService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityListenerRegistrar entityListenerRegistrar;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String topic;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    private final DefaultKafkaConsumerFactory<String, String> consumerFactory;
+
+    private volatile KafkaMessageListenerContainer<String, String> container;
+
+    public CatalogCacheInvalidationService(EntityManagerFactory entityManagerFactory, EntityListenerRegistrar entityListenerRegistrar,
+                                           ApplicationEventPublisher eventPublisher, KafkaProperties kafkaProperties,
+                                           ApplicationProperties applicationProperties) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityListenerRegistrar = entityListenerRegistrar;
+        this.eventPublisher = eventPublisher;
+        this.topic = applicationProperties.getCatalogCache().getInvalidationTopic();
+
+        Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties();
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        this.kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProperties));
+
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties();
+        consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // every replica has to see every invalidation, but only those sent while it is running
+        consumerProperties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProperties);
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        this.entityListenerRegistrar.registerPostCommit(new CatalogChangeListener(this::onChange));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<PartitionInfo> partitions;
+        try (Consumer<String, String> consumer = this.consumerFactory.createConsumer()) {
+            partitions = consumer.partitionsFor(this.topic);
+        } catch (KafkaException e) {
+            this.log.warn("Partitions of the invalidation topic {} could not be read, changes of other replicas are served until they expire",
+                this.topic, e);
+            return;
+        }
+        if (partitions == null || partitions.isEmpty()) {
+            this.log.warn("Invalidation topic {} not found, changes of other replicas are served until they expire", this.topic);
+            return;
+        }
+        ContainerProperties containerProperties = new ContainerProperties(partitions.stream()
+            .map(partition -> new TopicPartitionOffset(this.topic, partition.partition(), TopicPartitionOffset.SeekPosition.END))
+            .toArray(TopicPartitionOffset[]::new));
+        containerProperties.setMessageListener((MessageListener<String, String>) this::onInvalidation);
+        // without a consumer group there is nothing to commit the offsets to
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        this.container = new KafkaMessageListenerContainer<>(this.consumerFactory, containerProperties);
+        this.container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (this.container != null) {
+            this.container.stop();
+        }
+        this.kafkaTemplate.destroy();
+    }
+
+    void onChange(Object entity) {
+        if (entity instanceof Product) {
+            this.broadcast(PRODUCT_KEY + ((Product) entity).getId());
+        } else if (entity instanceof Price) {
+            Price price = (Price) entity;
+            this.broadcast(PRICE_KEY + price.getId());
+            if (price.getProduct() != null) {
+                this.broadcast(PRODUCT_PRICES_KEY + price.getProduct().getId());
+            }
+        }
+    }
+
+    private void broadcast(String key) {
+        this.kafkaTemplate.send(this.topic, key, this.instanceId).addCallback(
+            result -> this.log.debug("Broadcast invalidation of {}", key),
+            ex -> this.log.warn("Invalidation of {} could not be broadcast, other replicas serve it until it expires", key, ex)
+        );
+    }
+
+    void onInvalidation(ConsumerRecord<String, String> record) {
+        if (this.instanceId.equals(record.value()) || record.key() == null) {
+            return;
+        }
+        this.evict(record.key());
+    }
+
+    void evict(String key) {
+        Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (key.startsWith(PRODUCT_PRICES_KEY)) {
+            cache.evictCollectionData(CacheConfiguration.PRODUCT_PRICES_ROLE, key.substring(PRODUCT_PRICES_KEY.length()));
+        } else if (key.startsWith(PRODUCT_KEY)) {
+            cache.evictEntityData(Product.class, key.substring(PRODUCT_KEY.length()));
+        } else if (key.startsWith(PRICE_KEY)) {
+            cache.evictEntityData(Price.class, key.substring(PRICE_KEY.length()));
+        }
+        // the update timestamps of the query cache are local, the catalog queries of this replica may be stale
+        cache.evictQueryRegions();
+        this.log.debug("Evicted {} changed by another replica", key);
+        this.eventPublisher.publishEvent(new CatalogChangedEvent(key));
+    }
+}
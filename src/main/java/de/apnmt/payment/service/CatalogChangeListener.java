@@ -0,0 +1,63 @@
+package de.apnmt.payment.service;
+
+import java.util.function.Consumer;
+
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Hibernate listener reporting every committed change of a product or price.
+ */
+class CatalogChangeListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Consumer<Object> onChange;
+
+    CatalogChangeListener(Consumer<Object> onChange) {
+        this.onChange = onChange;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        this.onChange.accept(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        this.onChange.accept(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        this.onChange.accept(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was committed, the caches stay as they are
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was committed, the caches stay as they are
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was committed, the caches stay as they are
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        String entityName = persister.getEntityName();
+        return Product.class.getName().equals(entityName) || Price.class.getName().equals(entityName);
+    }
+}
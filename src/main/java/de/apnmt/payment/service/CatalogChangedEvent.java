@@ -0,0 +1,17 @@
+package de.apnmt.payment.service;
+
+/**
+ * Published when another replica changed the product catalog.
+ */
+public class CatalogChangedEvent {
+
+    private final String key;
+
+    public CatalogChangedEvent(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+}
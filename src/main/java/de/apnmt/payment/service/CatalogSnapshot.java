@@ -0,0 +1,41 @@
+package de.apnmt.payment.service;
+
+/**
+ * Immutable, serialized state of the product catalog with its strong entity tag.
+ */
+public final class CatalogSnapshot {
+
+    private final byte[] body;
+
+    private final String eTag;
+
+    private final long version;
+
+    private final long builtAt;
+
+    CatalogSnapshot(byte[] body, String eTag, long version, long builtAt) {
+        this.body = body;
+        this.eTag = eTag;
+        this.version = version;
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * @return the JSON body, must not be modified.
+     */
+    public byte[] getBody() {
+        return this.body;
+    }
+
+    public String getETag() {
+        return this.eTag;
+    }
+
+    long getVersion() {
+        return this.version;
+    }
+
+    long getBuiltAt() {
+        return this.builtAt;
+    }
+}
@@ -0,0 +1,138 @@
+package de.apnmt.payment.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.common.service.dto.PriceDTO;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.repository.CatalogProjectionRepository;
+import de.apnmt.payment.service.dto.CatalogProductDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service serving the product catalog as a precomputed snapshot.
+ * <p>
+ * All products with their prices are serialized once and served as bytes with a strong entity tag. Every committed
+ * change of a product or price, locally or on another replica, bumps the catalog version, and the snapshot is rebuilt
+ * by the next request that finds it outdated. A maximum age bounds the staleness when the changes of other replicas are
+ * not broadcast.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final CatalogProjectionRepository catalogProjectionRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityListenerRegistrar entityListenerRegistrar;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long maxAgeMs;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotService(CatalogProjectionRepository catalogProjectionRepository, ObjectMapper objectMapper,
+                                  EntityListenerRegistrar entityListenerRegistrar, PlatformTransactionManager transactionManager,
+                                  ApplicationProperties applicationProperties) {
+        this.catalogProjectionRepository = catalogProjectionRepository;
+        this.objectMapper = objectMapper;
+        this.entityListenerRegistrar = entityListenerRegistrar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxAgeMs = applicationProperties.getCatalogSnapshot().getMaxAgeMs();
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        this.entityListenerRegistrar.registerPostCommit(new CatalogChangeListener(entity -> this.invalidate()));
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        this.invalidate();
+    }
+
+    /**
+     * Marks the current snapshot as outdated.
+     */
+    public void invalidate() {
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Returns the snapshot of the current catalog, rebuilding it if the catalog changed since it was built.
+     *
+     * @return the catalog snapshot.
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = this.snapshot;
+        if (this.isCurrent(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = this.snapshot;
+            if (!this.isCurrent(current)) {
+                current = this.build();
+                this.snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private boolean isCurrent(CatalogSnapshot current) {
+        return current != null && current.getVersion() == this.version.get() && System.currentTimeMillis() - current.getBuiltAt() < this.maxAgeMs;
+    }
+
+    private CatalogSnapshot build() {
+        // read before the catalog, a change committed meanwhile leaves the snapshot outdated
+        long buildVersion = this.version.get();
+        List<CatalogProductDTO> catalog = this.transactionTemplate.execute(status -> this.readCatalog());
+        try {
+            byte[] body = this.objectMapper.writeValueAsBytes(catalog);
+            CatalogSnapshot built = new CatalogSnapshot(body, eTagOf(body), buildVersion, System.currentTimeMillis());
+            this.log.debug("Built catalog snapshot {} of {} bytes", built.getETag(), body.length);
+            return built;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalog snapshot could not be serialized", e);
+        }
+    }
+
+    private List<CatalogProductDTO> readCatalog() {
+        List<CatalogProductDTO> catalog = this.catalogProjectionRepository.findAllProducts();
+        Map<String, List<PriceDTO>> pricesByProduct = this.catalogProjectionRepository.findAllPricesByProduct();
+        for (CatalogProductDTO product : catalog) {
+            product.setPrices(pricesByProduct.getOrDefault(product.getId(), Collections.emptyList()));
+        }
+        return catalog;
+    }
+
+    private static String eTagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder eTag = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                eTag.append(String.format("%02x", digest[i]));
+            }
+            return eTag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
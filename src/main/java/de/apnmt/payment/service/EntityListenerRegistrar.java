@@ -0,0 +1,58 @@
+package de.apnmt.payment.service;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers Hibernate listeners on the changes of the entities, including the entities of payment-service-common that
+ * are written by services outside of this code base.
+ */
+@Component
+public class EntityListenerRegistrar {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityListenerRegistrar(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Registers a listener on the committed inserts, updates and deletes of the entities.
+     *
+     * @param listener the listener.
+     * @param <L>      the type of the listener.
+     */
+    public <L extends PostCommitInsertEventListener & PostCommitUpdateEventListener & PostCommitDeleteEventListener> void registerPostCommit(L listener) {
+        EventListenerRegistry registry = this.registry();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Registers a listener on the inserts, updates and deletes of the entities, called when they are flushed inside of
+     * the writing transaction.
+     *
+     * @param listener the listener.
+     * @param <L>      the type of the listener.
+     */
+    public <L extends PostInsertEventListener & PostUpdateEventListener & PostDeleteEventListener> void registerPostWrite(L listener) {
+        EventListenerRegistry registry = this.registry();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    private EventListenerRegistry registry() {
+        return this.entityManagerFactory.unwrap(SessionFactoryImpl.class).getServiceRegistry().getService(EventListenerRegistry.class);
+    }
+}
@@ -0,0 +1,220 @@
+package de.apnmt.payment.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.domain.ExpirationShardLease;
+import de.apnmt.payment.domain.ExpirationSweepMember;
+import de.apnmt.payment.repository.ExpirationShardLeaseRepository;
+import de.apnmt.payment.repository.ExpirationSweepMemberRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service distributing the shards of the expiration sweep over the running instances.
+ * <p>
+ * Every instance heartbeats into {@code expiration_sweep_member}, computes its fair share from the number of live
+ * members and claims or releases leases in {@code expiration_shard_lease} accordingly. Leases of crashed instances
+ * expire and are picked up by the others, so the work redistributes when pods come and go. A shard is only swept by the
+ * instance holding its lease, which keeps a deactivation event from being sent twice.
+ * <p>
+ * Only the heartbeat rebalances. Work runs on a snapshot of the assignment outside of the lock of the heartbeat, so a
+ * long sweep cannot delay the renewal of the leases, and shards above the fair share are only given up while no work
+ * is running on them.
+ */
+@Service
+public class ExpirationShardService {
+
+    private final Logger log = LoggerFactory.getLogger(ExpirationShardService.class);
+
+    private final ExpirationShardLeaseRepository leaseRepository;
+
+    private final ExpirationSweepMemberRepository memberRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Expiration.Sharding sharding;
+
+    private final String instanceId;
+
+    private final AtomicInteger runningWork = new AtomicInteger();
+
+    private volatile ShardAssignment assignment;
+
+    private volatile boolean joined;
+
+    public ExpirationShardService(ExpirationShardLeaseRepository leaseRepository, ExpirationSweepMemberRepository memberRepository,
+                                  PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.leaseRepository = leaseRepository;
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sharding = applicationProperties.getExpiration().getSharding();
+        this.instanceId = StringUtils.isNotBlank(this.sharding.getInstanceId()) ? this.sharding.getInstanceId() : UUID.randomUUID().toString();
+        this.assignment = new ShardAssignment(this.sharding.getShardCount(), Collections.emptySet());
+    }
+
+    /**
+     * Runs the given work with the shards currently leased to this instance. While work is running, the heartbeat keeps
+     * renewing the leases but does not release any, so no shard is handed over while it is being swept.
+     *
+     * @param work the work to run.
+     * @param <T>  the result type.
+     * @return the result of the work.
+     */
+    public <T> T withAssignment(Function<ShardAssignment, T> work) {
+        if (!this.sharding.isEnabled()) {
+            return work.apply(ShardAssignment.all());
+        }
+        if (!this.joined) {
+            this.heartbeat();
+        }
+        this.runningWork.incrementAndGet();
+        try {
+            return work.apply(this.assignment);
+        } finally {
+            this.runningWork.decrementAndGet();
+        }
+    }
+
+    /**
+     * Renews the leases of the shards work is running on, to be called between the chunks of a long sweep. A lease
+     * another instance took over in the meantime is not renewed, its shard is dropped from the assignment of this
+     * instance and must not be swept any further.
+     *
+     * @param assignment the shards the work is running on.
+     * @return the shards of the assignment still leased to this instance.
+     */
+    public ShardAssignment renew(ShardAssignment assignment) {
+        if (!this.sharding.isEnabled()) {
+            return assignment;
+        }
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plusMillis(this.sharding.getLeaseTtlMs());
+        Set<Integer> renewed = this.transactionTemplate.execute(status -> assignment.getShards().stream()
+            .filter(shardId -> this.leaseRepository.claim(shardId, this.instanceId, leaseUntil, now) == 1)
+            .collect(Collectors.toCollection(LinkedHashSet::new)));
+        if (renewed == null || renewed.size() == assignment.getShards().size()) {
+            return assignment;
+        }
+        Set<Integer> lost = new LinkedHashSet<>(assignment.getShards());
+        lost.removeAll(renewed);
+        this.log.warn("Instance {} lost the leases of shards {} to another instance", this.instanceId, lost);
+        this.drop(lost);
+        return new ShardAssignment(assignment.getShardCount(), renewed);
+    }
+
+    @Scheduled(fixedDelayString = "${application.expiration.sharding.heartbeat-interval-ms:30000}")
+    public synchronized void heartbeat() {
+        if (this.sharding.isEnabled()) {
+            this.rebalance();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!this.sharding.isEnabled()) {
+            return;
+        }
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.leaseRepository.releaseAll(this.instanceId);
+            this.memberRepository.deleteById(this.instanceId);
+        });
+        this.log.info("Instance {} left the expiration sweep", this.instanceId);
+    }
+
+    private synchronized void drop(Set<Integer> lost) {
+        Set<Integer> shards = new LinkedHashSet<>(this.assignment.getShards());
+        shards.removeAll(lost);
+        this.assignment = new ShardAssignment(this.assignment.getShardCount(), shards);
+    }
+
+    private void rebalance() {
+        this.ensureShards();
+        this.joined = true;
+        ShardAssignment rebalanced = this.transactionTemplate.execute(status -> this.claimFairShare());
+        if (rebalanced != null && !rebalanced.getShards().equals(this.assignment.getShards())) {
+            this.log.info("Instance {} now sweeps {}", this.instanceId, rebalanced);
+        }
+        if (rebalanced != null) {
+            this.assignment = rebalanced;
+        }
+    }
+
+    private ShardAssignment claimFairShare() {
+        int shardCount = this.sharding.getShardCount();
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plusMillis(this.sharding.getLeaseTtlMs());
+
+        this.memberRepository.save(new ExpirationSweepMember().instanceId(this.instanceId).heartbeatAt(now));
+        long liveMembers = Math.max(1, this.memberRepository.countByHeartbeatAtAfter(now.minusMillis(this.sharding.getMemberTtlMs())));
+        int fairShare = (int) ((shardCount + liveMembers - 1) / liveMembers);
+
+        List<ExpirationShardLease> leases = this.leaseRepository.findAllByShardIdLessThanOrderByShardId(shardCount);
+        List<Integer> owned = new ArrayList<>();
+        List<Integer> claimable = new ArrayList<>();
+        for (ExpirationShardLease lease : leases) {
+            boolean expired = lease.getLeaseUntil() == null || lease.getLeaseUntil().isBefore(now);
+            if (this.instanceId.equals(lease.getOwner()) && !expired) {
+                owned.add(lease.getShardId());
+            } else if (lease.getOwner() == null || expired) {
+                claimable.add(lease.getShardId());
+            }
+        }
+
+        if (owned.size() > fairShare && this.runningWork.get() == 0) {
+            List<Integer> excess = new ArrayList<>(owned.subList(fairShare, owned.size()));
+            this.leaseRepository.release(this.instanceId, excess);
+            owned.removeAll(excess);
+        }
+        Set<Integer> shards = new LinkedHashSet<>();
+        for (Integer shardId : owned) {
+            if (this.leaseRepository.claim(shardId, this.instanceId, leaseUntil, now) == 1) {
+                shards.add(shardId);
+            }
+        }
+        for (Integer shardId : claimable) {
+            if (shards.size() >= fairShare) {
+                break;
+            }
+            if (this.leaseRepository.claim(shardId, this.instanceId, leaseUntil, now) == 1) {
+                shards.add(shardId);
+            }
+        }
+        return new ShardAssignment(shardCount, shards);
+    }
+
+    private void ensureShards() {
+        int shardCount = this.sharding.getShardCount();
+        if (this.leaseRepository.count() >= shardCount) {
+            return;
+        }
+        for (int shardId = 0; shardId < shardCount; shardId++) {
+            int id = shardId;
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> {
+                    if (!this.leaseRepository.existsById(id)) {
+                        this.leaseRepository.saveAndFlush(new ExpirationShardLease().shardId(id));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                this.log.debug("Shard {} was created by another instance", id);
+            }
+        }
+    }
+}
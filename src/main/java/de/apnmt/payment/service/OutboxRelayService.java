@@ -0,0 +1,112 @@
+package de.apnmt.payment.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.domain.OutboxEvent;
+import de.apnmt.payment.kafka.OrganizationActivationEventSender;
+import de.apnmt.payment.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service relaying the events stored in the outbox to Kafka.
+ * <p>
+ * Every batch is locked with {@code FOR UPDATE}, published and deleted in one transaction. If the broker does not
+ * acknowledge the batch, the transaction rolls back and the rows are picked up again by the next run.
+ * <p>
+ * Delivery is at-least-once: the events of a batch acknowledged in part are all published again, so consumers may see
+ * an event more than once. Relays on other replicas wait for the locked rows instead of skipping them, so only one
+ * batch is published at a time, and the idempotent producer keeps the events of a key in the order they were stored.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelayService {
+
+    private static final TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> EVENT_TYPE = new TypeReference<>() {
+    };
+
+    private final Logger log = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OrganizationActivationEventSender organizationActivationEventSender;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Outbox outboxProperties;
+
+    public OutboxRelayService(OutboxEventRepository outboxEventRepository, OrganizationActivationEventSender organizationActivationEventSender,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.organizationActivationEventSender = organizationActivationEventSender;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxProperties = applicationProperties.getOutbox();
+    }
+
+    /**
+     * Drains the outbox until no full batch is left.
+     *
+     * @return the number of relayed events.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.relay-interval-ms:500}")
+    public int relay() {
+        int total = 0;
+        int relayed;
+        do {
+            Integer count = this.transactionTemplate.execute(status -> this.relayBatch());
+            relayed = count != null ? count : 0;
+            total += relayed;
+        } while (relayed == this.outboxProperties.getBatchSize());
+        if (total > 0) {
+            this.log.debug("Relayed {} outbox events", total);
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = this.outboxEventRepository.findNextBatchForUpdate(PageRequest.of(0, this.outboxProperties.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = batch.stream()
+            .map(outboxEvent -> this.organizationActivationEventSender.sendAsync(outboxEvent.getTopic(), this.readEvent(outboxEvent)))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(this.outboxProperties.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Outbox events could not be relayed", e);
+        }
+        this.outboxEventRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+
+    private ApnmtEvent<OrganizationActivationEventDTO> readEvent(OutboxEvent outboxEvent) {
+        try {
+            return this.objectMapper.readValue(outboxEvent.getPayload(), EVENT_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Outbox event " + outboxEvent.getId() + " could not be deserialized", e);
+        }
+    }
+}
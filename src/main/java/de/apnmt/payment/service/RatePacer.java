@@ -0,0 +1,38 @@
+package de.apnmt.payment.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spaces calls evenly to stay below a rate. Every caller reserves the next free slot with a single atomic update and
+ * waits until it is due, so no lock is held while waiting.
+ */
+class RatePacer {
+
+    private final long intervalNanos;
+
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param permitsPerSecond the maximum rate, {@code 0} or less for no limit.
+     */
+    RatePacer(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    /**
+     * Waits until the caller may proceed.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        if (this.intervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = Math.max(now, this.nextSlot.getAndUpdate(next -> Math.max(next, now) + this.intervalNanos));
+        if (slot > now) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+        }
+    }
+}
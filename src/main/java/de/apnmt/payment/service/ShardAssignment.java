@@ -0,0 +1,60 @@
+package de.apnmt.payment.service;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The shards of subscription ids an instance is currently responsible for.
+ */
+public final class ShardAssignment {
+
+    private static final ShardAssignment ALL = new ShardAssignment(1, Set.of(0));
+
+    private final int shardCount;
+
+    private final Set<Integer> shards;
+
+    public ShardAssignment(int shardCount, Set<Integer> shards) {
+        this.shardCount = shardCount;
+        this.shards = Collections.unmodifiableSet(shards);
+    }
+
+    /**
+     * @return an assignment owning every subscription, used when sharding is disabled.
+     */
+    public static ShardAssignment all() {
+        return ALL;
+    }
+
+    public static int shardOf(String subscriptionId, int shardCount) {
+        return Math.floorMod(subscriptionId.hashCode(), shardCount);
+    }
+
+    public boolean owns(String subscriptionId) {
+        return this.shards.contains(shardOf(subscriptionId, this.shardCount));
+    }
+
+    /**
+     * @return whether every shard is owned, so the subscriptions do not have to be filtered by shard.
+     */
+    public boolean ownsAll() {
+        return this.shards.size() >= this.shardCount;
+    }
+
+    public boolean isEmpty() {
+        return this.shards.isEmpty();
+    }
+
+    public int getShardCount() {
+        return this.shardCount;
+    }
+
+    public Set<Integer> getShards() {
+        return this.shards;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardAssignment{" + "shardCount=" + this.shardCount + ", shards=" + this.shards + "}";
+    }
+}
@@ -0,0 +1,211 @@
+package de.apnmt.payment.service;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the Stripe calls in bulkheads, with a time limit and behind a circuit breaker per operation.
+ * <p>
+ * Webhook processing and all other callers get their own thread pool, so a degraded Stripe cannot tie up the request
+ * threads of the other endpoints beyond the size of the checkout pool, and the webhooks keep being processed while the
+ * checkouts queue up. A read waits for its result up to the time limit and then fails, while a write is always
+ * awaited: it may already have been applied by Stripe, so giving up on it would make the caller retry a write that
+ * happened. The breaker of an operation opens once too many of its calls failed or were slow, and fails the following
+ * calls at once, before they reach Stripe. Only
+ * connectivity problems, time-outs and server errors of Stripe count as failures, declined cards and invalid requests
+ * are answers of a healthy Stripe.
+ * <p>
+ * The state of the breakers, the permitted and rejected calls, the bulkheads and the time-outs are exported by the
+ * Resilience4j Micrometer binders under {@code resilience4j.*}.
+ */
+@Service
+public class StripeCallGuard {
+
+    static final String CHECKOUT_BULKHEAD = "stripe-checkout";
+
+    static final String WEBHOOK_BULKHEAD = "stripe-webhook";
+
+    private static final ThreadLocal<Boolean> GUARDED = new ThreadLocal<>();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final ThreadPoolBulkhead checkoutBulkhead;
+
+    private final ThreadPoolBulkhead webhookBulkhead;
+
+    private final TimeLimiter timeLimiter;
+
+    public StripeCallGuard(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Stripe.Resilience properties = applicationProperties.getStripe().getResilience();
+        ApplicationProperties.Stripe.Resilience.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(breaker.getFailureRateThreshold())
+            .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+            .slowCallDurationThreshold(Duration.ofMillis(breaker.getSlowCallDurationMs()))
+            .slidingWindowSize(breaker.getSlidingWindowSize())
+            .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(Duration.ofMillis(breaker.getWaitInOpenStateMs()))
+            .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedCallsInHalfOpenState())
+            .recordException(StripeCallGuard::isFailure)
+            .build());
+        ThreadPoolBulkheadRegistry bulkheadRegistry = ThreadPoolBulkheadRegistry.ofDefaults();
+        this.checkoutBulkhead = bulkheadRegistry.bulkhead(CHECKOUT_BULKHEAD, this.bulkheadConfig(properties.getCheckout()));
+        this.webhookBulkhead = bulkheadRegistry.bulkhead(WEBHOOK_BULKHEAD, this.bulkheadConfig(properties.getWebhook()));
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+            .timeoutDuration(Duration.ofMillis(properties.getTimeoutMs()))
+            .cancelRunningFuture(true)
+            .build());
+        this.timeLimiter = timeLimiterRegistry.timeLimiter("stripe");
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(this.circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiterRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Runs a Stripe read on the bulkhead of its priority, behind the circuit breaker of its operation and with a time
+     * limit.
+     *
+     * @param operation the operation, naming the circuit breaker.
+     * @param priority  the priority of the call.
+     * @param call      the call.
+     * @param <T>       the type of the result.
+     * @return the result of the call.
+     * @throws Exception see {@link #call(String, StripeCallPriority, boolean, Callable)}.
+     */
+    public <T> T call(String operation, StripeCallPriority priority, Callable<T> call) throws Exception {
+        return this.call(operation, priority, false, call);
+    }
+
+    /**
+     * Runs a Stripe call on the bulkhead of its priority, behind the circuit breaker of its operation. A call made by
+     * another guarded call runs on the thread of the outer call, it is already covered by the bulkhead and time limit.
+     *
+     * @param operation the operation, naming the circuit breaker.
+     * @param priority  the priority of the call.
+     * @param write     whether the call changes the state of Stripe, in which case it is awaited without time limit.
+     * @param call      the call.
+     * @param <T>       the type of the result.
+     * @return the result of the call.
+     * @throws CallNotPermittedException if the circuit breaker of the operation is open.
+     * @throws BulkheadFullException     if the bulkhead of the priority is saturated.
+     * @throws TimeoutException          if a read did not complete in time.
+     * @throws Exception                 the exception of the call.
+     */
+    public <T> T call(String operation, StripeCallPriority priority, boolean write, Callable<T> call) throws Exception {
+        if (Boolean.TRUE.equals(GUARDED.get())) {
+            return call.call();
+        }
+        CircuitBreaker breaker = this.circuitBreakerRegistry.circuitBreaker(operation);
+        breaker.acquirePermission();
+        long start = System.nanoTime();
+        try {
+            ThreadPoolBulkhead bulkhead = priority == StripeCallPriority.WEBHOOK ? this.webhookBulkhead : this.checkoutBulkhead;
+            T result = write
+                ? await(bulkhead.submit(() -> guarded(call)).toCompletableFuture())
+                : this.timeLimiter.executeFutureSupplier(() -> bulkhead.submit(() -> guarded(call)).toCompletableFuture());
+            breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (BulkheadFullException e) {
+            // the call never reached Stripe
+            breaker.releasePermission();
+            throw e;
+        } catch (Exception e) {
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    CircuitBreaker.State stateOf(String operation) {
+        return this.circuitBreakerRegistry.circuitBreaker(operation).getState();
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        this.checkoutBulkhead.close();
+        this.webhookBulkhead.close();
+    }
+
+    /**
+     * Tells whether the Stripe call failed because Stripe is unavailable, and not because of the request.
+     *
+     * @param e the exception of the call.
+     * @return {@code true} for connectivity problems, time-outs and server errors.
+     */
+    public static boolean isFailure(Throwable e) {
+        if (e instanceof ApiConnectionException || e instanceof TimeoutException) {
+            return true;
+        }
+        if (e instanceof StripeException) {
+            Integer statusCode = ((StripeException) e).getStatusCode();
+            return statusCode == null || statusCode >= 500;
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the Stripe call was not made or not completed because Stripe is unavailable.
+     *
+     * @param e the exception of the call.
+     * @return {@code true} if the call failed, timed out or was rejected by a breaker or a bulkhead.
+     */
+    public static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException || isFailure(e);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T guarded(Callable<T> call) throws Exception {
+        GUARDED.set(Boolean.TRUE);
+        try {
+            return call.call();
+        } finally {
+            GUARDED.remove();
+        }
+    }
+
+    private ThreadPoolBulkheadConfig bulkheadConfig(ApplicationProperties.Stripe.Resilience.Bulkhead properties) {
+        int maxThreads = Math.max(1, properties.getMaxThreads());
+        return ThreadPoolBulkheadConfig.custom()
+            .coreThreadPoolSize(maxThreads)
+            .maxThreadPoolSize(maxThreads)
+            .queueCapacity(Math.max(1, properties.getQueueCapacity()))
+            .build();
+    }
+}
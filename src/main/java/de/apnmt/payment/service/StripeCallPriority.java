@@ -0,0 +1,65 @@
+package de.apnmt.payment.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Priority classes of the Stripe calls, from the most to the least important. The {@link StripeRateLimiter} keeps a
+ * share of its tokens out of reach of the lower classes.
+ * <p>
+ * Calls made while processing a webhook are {@link #WEBHOOK}, calls of a bulk checkout are {@link #BULK}. Otherwise the
+ * class follows the HTTP request being handled: reads are {@link #READ}, everything else {@link #CHECKOUT}.
+ */
+public enum StripeCallPriority {
+    WEBHOOK,
+    CHECKOUT,
+    READ,
+    BULK;
+
+    private static final ThreadLocal<StripeCallPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Runs the calls of the current thread with the given priority until the returned scope is closed.
+     *
+     * @param priority the priority of the calls.
+     * @return the scope to close.
+     */
+    public static Scope enter(StripeCallPriority priority) {
+        StripeCallPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the priority of a Stripe call made by the current thread.
+     *
+     * @return the priority.
+     */
+    public static StripeCallPriority current() {
+        StripeCallPriority priority = CURRENT.get();
+        if (priority != null) {
+            return priority;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes && "GET".equals(((ServletRequestAttributes) attributes).getRequest().getMethod())) {
+            return READ;
+        }
+        return CHECKOUT;
+    }
+
+    /**
+     * Scope of a priority, restoring the previous priority when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,223 @@
+package de.apnmt.payment.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.stripe.model.Customer;
+import com.stripe.model.Event;
+import com.stripe.model.HasId;
+import com.stripe.model.Invoice;
+import com.stripe.model.Price;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Subscription;
+import com.stripe.net.ApiResource;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Size-bounded caches of the Stripe subscriptions, customers and prices fetched by id, each with its own time to live.
+ * <p>
+ * Webhooks carry the current state of the object they are about, so they refresh the matching entry, or evict it when
+ * the object was deleted or, for invoices, when the subscription they belong to changed.
+ * <p>
+ * The last known state of every object is additionally kept for a longer time after its entry expired or was evicted,
+ * to be served as a fallback while Stripe is unavailable. The deletion of an object drops its last known state, and so
+ * does an invoice for the subscription it belongs to, as the state of the subscription is then known to be outdated.
+ * <p>
+ * Stripe objects are mutable, so the caches hold copies of the objects put into them and hand out copies as well. A
+ * caller changing an object it got, e.g. to update it, never changes what other callers get.
+ */
+@Service
+public class StripeObjectCache {
+
+    /**
+     * Loads an object from Stripe on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+
+    private static final String DELETED_EVENT_SUFFIX = ".deleted";
+
+    private final Logger log = LoggerFactory.getLogger(StripeObjectCache.class);
+
+    private final Map<Class<?>, Cache<String, Object>> caches;
+
+    private final Map<Class<?>, Cache<String, Object>> lastKnown;
+
+    private final Map<String, Class<?>> typesByObjectName;
+
+    public StripeObjectCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Stripe.Cache properties = applicationProperties.getStripe().getCache();
+        this.caches = Map.of(
+            Subscription.class, this.cache("stripe.subscription", properties.getSubscriptionTtlMs(), properties.getMaximumSize(), meterRegistry),
+            Customer.class, this.cache("stripe.customer", properties.getCustomerTtlMs(), properties.getMaximumSize(), meterRegistry),
+            Price.class, this.cache("stripe.price", properties.getPriceTtlMs(), properties.getMaximumSize(), meterRegistry)
+        );
+        this.lastKnown = Map.of(
+            Subscription.class, this.lastKnownCache(properties),
+            Customer.class, this.lastKnownCache(properties),
+            Price.class, this.lastKnownCache(properties)
+        );
+        this.typesByObjectName = Map.of("subscription", Subscription.class, "customer", Customer.class, "price", Price.class);
+    }
+
+    public boolean isCached(Class<?> type) {
+        return this.caches.containsKey(type);
+    }
+
+    /**
+     * Returns the cached object, loading and caching it on a miss.
+     *
+     * @param type   the Stripe type of the object.
+     * @param id     the id of the object.
+     * @param loader the loader fetching the object from Stripe.
+     * @return the object.
+     * @throws Throwable if the loader failed.
+     */
+    public Object get(Class<?> type, String id, Loader loader) throws Throwable {
+        Cache<String, Object> cache = this.caches.get(type);
+        Object cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+        Object loaded = loader.load();
+        if (loaded != null) {
+            Object copy = copy(loaded);
+            cache.put(id, copy);
+            this.lastKnown.get(type).put(id, copy);
+        }
+        return loaded;
+    }
+
+    public void evict(Class<?> type, String id) {
+        Cache<String, Object> cache = this.caches.get(type);
+        if (cache != null && id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Remembers the last known state of an object fetched from Stripe without going through the cache.
+     *
+     * @param type   the Stripe type of the object.
+     * @param id     the id of the object.
+     * @param object the object.
+     */
+    public void remember(Class<?> type, String id, Object object) {
+        Cache<String, Object> cache = this.lastKnown.get(type);
+        if (cache != null && id != null && object != null) {
+            cache.put(id, copy(object));
+        }
+    }
+
+    /**
+     * Returns the last known state of an object, which may be outdated.
+     *
+     * @param type the Stripe type of the object.
+     * @param id   the id of the object.
+     * @return the last known state, {@code null} if unknown.
+     */
+    public Object getLastKnown(Class<?> type, String id) {
+        Cache<String, Object> cache = this.lastKnown.get(type);
+        Object lastKnown = cache != null && id != null ? cache.getIfPresent(id) : null;
+        return lastKnown != null ? copy(lastKnown) : null;
+    }
+
+    /**
+     * Refreshes or evicts the entries a webhook is about.
+     *
+     * @param event the Stripe event of the webhook.
+     */
+    public void onEvent(Event event) {
+        if (event.getData() == null || event.getData().getObject() == null) {
+            return;
+        }
+        boolean deleted = event.getType() != null && event.getType().endsWith(DELETED_EVENT_SUFFIX);
+        Optional<StripeObject> object = event.getDataObjectDeserializer().getObject();
+        if (object.isPresent()) {
+            this.onObject(object.get(), deleted);
+        } else {
+            // the event was sent with another API version than the one of the client
+            this.onRawObject(event.getData().getObject());
+        }
+    }
+
+    private void onObject(StripeObject object, boolean deleted) {
+        if (object instanceof Invoice) {
+            this.remove(Subscription.class, ((Invoice) object).getSubscription());
+        } else if (object instanceof HasId && this.isCached(object.getClass())) {
+            String id = ((HasId) object).getId();
+            if (deleted) {
+                this.remove(object.getClass(), id);
+            } else if (id != null) {
+                Object copy = copy(object);
+                this.caches.get(object.getClass()).put(id, copy);
+                this.lastKnown.get(object.getClass()).put(id, copy);
+                this.log.debug("Refreshed cached Stripe {} {}", object.getClass().getSimpleName(), id);
+            }
+        }
+    }
+
+    private void onRawObject(JsonObject object) {
+        String objectName = stringOf(object.get("object"));
+        if ("invoice".equals(objectName)) {
+            this.remove(Subscription.class, stringOf(object.get("subscription")));
+        } else if (objectName != null && this.typesByObjectName.containsKey(objectName)) {
+            // the state of the object cannot be read, so its last known state is outdated as well
+            this.remove(this.typesByObjectName.get(objectName), stringOf(object.get("id")));
+        }
+    }
+
+    private void remove(Class<?> type, String id) {
+        this.evict(type, id);
+        Cache<String, Object> cache = this.lastKnown.get(type);
+        if (cache != null && id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    private Cache<String, Object> cache(String name, long ttlMs, long maximumSize, MeterRegistry meterRegistry) {
+        Cache<String, Object> cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    private Cache<String, Object> lastKnownCache(ApplicationProperties.Stripe.Cache properties) {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(properties.getStaleTtlMs()))
+            .maximumSize(properties.getMaximumSize())
+            .build();
+    }
+
+    /**
+     * Copies a Stripe object through its JSON form, the way the Stripe client reads it from a response.
+     *
+     * @param object the object to copy.
+     * @return the copy, or the object itself if it is no Stripe object.
+     */
+    public static Object copy(Object object) {
+        if (!(object instanceof StripeObject)) {
+            return object;
+        }
+        return ApiResource.GSON.fromJson(ApiResource.GSON.toJsonTree(object), object.getClass());
+    }
+
+    private static String stringOf(JsonElement element) {
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,120 @@
+package de.apnmt.payment.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.stripe.exception.RateLimitException;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Token bucket shared by all Stripe calls of this instance, keeping them below the rate limit Stripe applies to the
+ * account.
+ * <p>
+ * Every priority class except {@link StripeCallPriority#WEBHOOK} leaves a reserve of tokens untouched, so a burst of
+ * bulk checkouts or reads cannot starve the webhooks and checkouts. A call waits for its token up to the configured
+ * time and otherwise fails with a {@link RateLimitException}, the same error Stripe answers with when the limit is hit.
+ */
+@Service
+public class StripeRateLimiter {
+
+    private final double permitsPerNano;
+
+    private final double capacity;
+
+    private final long maxWaitNanos;
+
+    private final Map<StripeCallPriority, Double> floors = new EnumMap<>(StripeCallPriority.class);
+
+    private final Map<StripeCallPriority, Timer> waitTimers = new EnumMap<>(StripeCallPriority.class);
+
+    private final Map<StripeCallPriority, Counter> rejectedCounters = new EnumMap<>(StripeCallPriority.class);
+
+    private double tokens;
+
+    private long refilledAt;
+
+    public StripeRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Stripe.RateLimit properties = applicationProperties.getStripe().getRateLimit();
+        this.permitsPerNano = properties.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, properties.getBurst());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMs());
+        this.floors.put(StripeCallPriority.WEBHOOK, 0.0);
+        this.floors.put(StripeCallPriority.CHECKOUT, this.floor(properties.getCheckoutReserve()));
+        this.floors.put(StripeCallPriority.READ, this.floor(properties.getReadReserve()));
+        this.floors.put(StripeCallPriority.BULK, this.floor(properties.getBulkReserve()));
+        this.tokens = this.capacity;
+        this.refilledAt = System.nanoTime();
+        for (StripeCallPriority priority : StripeCallPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            this.waitTimers.put(priority, Timer.builder("payment.stripe.limiter.wait").description("Time Stripe calls waited for a token")
+                .tag("priority", tag).register(meterRegistry));
+            this.rejectedCounters.put(priority, Counter.builder("payment.stripe.limiter.rejected").description("Stripe calls rejected by the limiter")
+                .tag("priority", tag).register(meterRegistry));
+        }
+        Gauge.builder("payment.stripe.limiter.tokens", this, StripeRateLimiter::availableTokens).register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for a call of the given priority, waiting for it if necessary.
+     *
+     * @param priority the priority of the call.
+     * @throws RateLimitException   if no token became available in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire(StripeCallPriority priority) throws RateLimitException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + this.maxWaitNanos;
+        long wait;
+        while ((wait = this.tryAcquire(priority)) > 0) {
+            long now = System.nanoTime();
+            if (now + wait > deadline) {
+                this.rejectedCounters.get(priority).increment();
+                throw new RateLimitException("Client-side rate limit of the Stripe calls exceeded", null, null, "rate_limit", 429, null);
+            }
+            LockSupport.parkNanos(this, wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        this.waitTimers.get(priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes a token if one is available above the reserve of the priority.
+     *
+     * @param priority the priority of the call.
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available.
+     */
+    synchronized long tryAcquire(StripeCallPriority priority) {
+        this.refill();
+        double floor = this.floors.get(priority);
+        if (this.tokens - 1 >= floor) {
+            this.tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((floor + 1 - this.tokens) / this.permitsPerNano));
+    }
+
+    synchronized double availableTokens() {
+        this.refill();
+        return this.tokens;
+    }
+
+    private double floor(double reserve) {
+        // every class can take at least the last token of a full bucket
+        return Math.min(this.capacity - 1, this.capacity * Math.max(0, reserve));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.refilledAt) * this.permitsPerNano);
+        this.refilledAt = now;
+    }
+}
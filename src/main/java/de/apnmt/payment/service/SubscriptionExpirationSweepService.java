@@ -0,0 +1,251 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.ApnmtEventType;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.common.sender.ApnmtEventSender;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.kafka.OrganizationActivationEventSender;
+import de.apnmt.payment.repository.SubscriptionExpiryRepository;
+import de.apnmt.payment.service.dto.SubscriptionExpiryDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service sweeping expired subscriptions in fixed-size chunks.
+ * <p>
+ * Every chunk is read with a keyset query, its deactivation events are published and the transaction is committed
+ * before the next chunk is read, so neither the persistence context nor the transaction grow with the number of
+ * expired subscriptions. With sharding, only the expired subscriptions of the shards leased to this instance are read
+ * from the database, so the reads are split between the instances. Sweeps and deactivations of due subscriptions are
+ * timed as {@code payment.expiration.sweep}, tagged with the mode, and the number of subscriptions they sent events for is recorded as
+ * {@code payment.expiration.sweep.subscriptions}.
+ */
+@Service
+public class SubscriptionExpirationSweepService {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExpirationSweepService.class);
+
+    private final SubscriptionExpiryRepository subscriptionExpiryRepository;
+
+    private final ApnmtEventSender<OrganizationActivationEventDTO> eventSender;
+
+    private final OrganizationActivationEventSender kafkaEventSender;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExpirationShardService expirationShardService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Timer scanTimer;
+
+    private final Timer indexTimer;
+
+    private final DistributionSummary scanSummary;
+
+    private final DistributionSummary indexSummary;
+
+    private final Counter deactivatedCounter;
+
+    public SubscriptionExpirationSweepService(SubscriptionExpiryRepository subscriptionExpiryRepository, ApnmtEventSender<OrganizationActivationEventDTO> eventSender,
+                                              OrganizationActivationEventSender kafkaEventSender, EntityManager entityManager,
+                                              PlatformTransactionManager transactionManager, ExpirationShardService expirationShardService,
+                                              ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.subscriptionExpiryRepository = subscriptionExpiryRepository;
+        this.eventSender = eventSender;
+        this.kafkaEventSender = kafkaEventSender;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expirationShardService = expirationShardService;
+        this.applicationProperties = applicationProperties;
+        this.scanTimer = Timer.builder("payment.expiration.sweep").description("Duration of the expiration sweeps").tag("mode", "scan").register(meterRegistry);
+        this.indexTimer = Timer.builder("payment.expiration.sweep").description("Duration of the expiration sweeps").tag("mode", "index").register(meterRegistry);
+        this.scanSummary = DistributionSummary.builder("payment.expiration.sweep.subscriptions").description("Expired subscriptions per sweep")
+            .tag("mode", "scan").register(meterRegistry);
+        this.indexSummary = DistributionSummary.builder("payment.expiration.sweep.subscriptions").description("Expired subscriptions per sweep")
+            .tag("mode", "index").register(meterRegistry);
+        this.deactivatedCounter = Counter.builder("payment.expiration.deactivated").description("Deactivation events sent for expired subscriptions")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Deactivates the organizations of all subscriptions expired at the given time, restricted to the shards leased to
+     * this instance when sharding is enabled.
+     *
+     * @param now the reference time.
+     * @return the number of expired subscriptions this instance sent events for.
+     */
+    public int sweep(LocalDateTime now) {
+        return this.sweep(null, now, id -> false);
+    }
+
+    /**
+     * Deactivates the organizations of the subscriptions that expired after {@code since} and until {@code now},
+     * restricted to the shards leased to this instance when sharding is enabled. Only the expiration date index is read
+     * from {@code since} on, so the cost of the sweep does not grow with the number of subscriptions expired before.
+     *
+     * @param since the time the previous sweep ran at, {@code null} to sweep all expired subscriptions.
+     * @param now   the reference time.
+     * @param skip  the subscriptions already deactivated since then, no events are sent for them.
+     * @return the number of expired subscriptions this instance sent events for.
+     */
+    public int sweep(LocalDateTime since, LocalDateTime now, Predicate<String> skip) {
+        Timer.Sample sample = Timer.start();
+        int total = this.expirationShardService.withAssignment(assignment -> this.sweep(since, now, skip, assignment));
+        sample.stop(this.scanTimer);
+        this.scanSummary.record(total);
+        return total;
+    }
+
+    /**
+     * Deactivates the organizations of the given subscriptions, if they are still expired at the given time and belong
+     * to a shard leased to this instance. The expiration date is re-read from the database, so subscriptions renewed in
+     * the meantime are skipped.
+     *
+     * @param ids the ids of the subscriptions due for expiration.
+     * @param now the reference time.
+     * @return the number of expired subscriptions this instance sent events for.
+     */
+    public int deactivate(Collection<String> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+        int deactivated = this.expirationShardService.withAssignment(assignment -> {
+            List<String> all = new ArrayList<>(ids);
+            int chunkSize = this.applicationProperties.getExpiration().getChunkSize();
+            int total = 0;
+            ShardAssignment current = assignment;
+            for (int from = 0; from < all.size() && !current.isEmpty(); from += chunkSize) {
+                if (from > 0) {
+                    // shards taken over by another instance are not deactivated any further
+                    current = this.expirationShardService.renew(current);
+                }
+                ShardAssignment owner = current;
+                List<String> chunk = all.subList(from, Math.min(all.size(), from + chunkSize)).stream().filter(owner::owns).collect(Collectors.toList());
+                if (chunk.isEmpty()) {
+                    continue;
+                }
+                Integer count = this.transactionTemplate.execute(status -> {
+                    List<SubscriptionExpiryDTO> expired = this.subscriptionExpiryRepository.findExpiredByIds(chunk, now);
+                    this.publish(expired);
+                    this.entityManager.clear();
+                    return expired.size();
+                });
+                total += count != null ? count : 0;
+            }
+            return total;
+        });
+        sample.stop(this.indexTimer);
+        this.indexSummary.record(deactivated);
+        return deactivated;
+    }
+
+    private int sweep(LocalDateTime since, LocalDateTime now, Predicate<String> skip, ShardAssignment assignment) {
+        if (assignment.isEmpty()) {
+            this.log.debug("No expiration shard leased to this instance, skipping sweep");
+            return 0;
+        }
+        int chunkSize = this.applicationProperties.getExpiration().getChunkSize();
+        int total = 0;
+        // the keyset starts at the previous sweep, the subscriptions expiring exactly then are swept again, never missed
+        SubscriptionExpiryDTO last = since != null ? new SubscriptionExpiryDTO("", since, null) : null;
+        ShardAssignment current = assignment;
+        List<SubscriptionExpiryDTO> chunk;
+        do {
+            SubscriptionExpiryDTO after = last;
+            ShardAssignment owner = current;
+            chunk = this.transactionTemplate.execute(status -> this.processChunk(now, after, chunkSize, owner, skip));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            total += (int) chunk.stream().map(SubscriptionExpiryDTO::getId).filter(skip.negate()).count();
+            last = chunk.get(chunk.size() - 1);
+            // shards taken over by another instance are not swept any further
+            current = this.expirationShardService.renew(current);
+        } while (chunk.size() == chunkSize && !current.isEmpty());
+        this.log.debug("Expiration sweep found {} expired subscriptions", total);
+        return total;
+    }
+
+    private List<SubscriptionExpiryDTO> processChunk(LocalDateTime now, SubscriptionExpiryDTO after, int chunkSize, ShardAssignment assignment,
+                                                     Predicate<String> skip) {
+        PageRequest page = PageRequest.of(0, chunkSize);
+        List<SubscriptionExpiryDTO> chunk;
+        if (assignment.ownsAll()) {
+            chunk = after == null
+                ? this.subscriptionExpiryRepository.findExpired(now, page)
+                : this.subscriptionExpiryRepository.findExpiredAfter(now, after.getExpirationDate(), after.getId(), page);
+        } else {
+            chunk = after == null
+                ? this.subscriptionExpiryRepository.findExpiredInShards(assignment.getShards(), now, page)
+                : this.subscriptionExpiryRepository.findExpiredInShardsAfter(assignment.getShards(), now, after.getExpirationDate(), after.getId(), page);
+        }
+        if (chunk.isEmpty()) {
+            return Collections.emptyList();
+        }
+        this.publish(chunk.stream().filter(expiry -> !skip.test(expiry.getId())).collect(Collectors.toList()));
+        this.entityManager.clear();
+        return chunk;
+    }
+
+    private void publish(List<SubscriptionExpiryDTO> expiries) {
+        if (expiries.isEmpty()) {
+            return;
+        }
+        List<ApnmtEvent<OrganizationActivationEventDTO>> events = new ArrayList<>(expiries.size());
+        for (SubscriptionExpiryDTO expiry : expiries) {
+            events.add(deactivationEvent(expiry.getOrganizationId()));
+        }
+        if (this.applicationProperties.getOutbox().isEnabled()) {
+            // stored in the chunk transaction, relayed after commit
+            events.forEach(event -> this.eventSender.send(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, event));
+            this.deactivatedCounter.increment(events.size());
+            return;
+        }
+        try {
+            this.kafkaEventSender.sendAll(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, events)
+                .get(this.applicationProperties.getExpiration().getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+            this.deactivatedCounter.increment(events.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing deactivation events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Deactivation events could not be published", e);
+        }
+    }
+
+    private static ApnmtEvent<OrganizationActivationEventDTO> deactivationEvent(Long organizationId) {
+        OrganizationActivationEventDTO value = new OrganizationActivationEventDTO();
+        value.setOrganizationId(organizationId);
+        value.setActive(false);
+        ApnmtEvent<OrganizationActivationEventDTO> event = new ApnmtEvent<>();
+        event.setType(ApnmtEventType.organizationActivationChanged);
+        event.setValue(value);
+        return event;
+    }
+}
@@ -0,0 +1,103 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Time-bucketed schedule of subscription expirations.
+ * <p>
+ * Expiration dates are rounded down to buckets of a fixed resolution. Scheduling a subscription is a lookup in an
+ * ordered map, and polling only touches the buckets that have fully elapsed, so the cost of a tick depends on the
+ * number of due subscriptions and not on the number of subscriptions in the index.
+ */
+class SubscriptionExpiryIndex {
+
+    private final long resolutionMs;
+
+    private final ZoneId zone;
+
+    private final NavigableMap<Long, Set<String>> buckets = new TreeMap<>();
+
+    private final Map<String, LocalDateTime> expirations = new HashMap<>();
+
+    SubscriptionExpiryIndex(long resolutionMs, ZoneId zone) {
+        this.resolutionMs = Math.max(1, resolutionMs);
+        this.zone = zone;
+    }
+
+    /**
+     * Schedules the subscription for the given expiration date, replacing a previous schedule of the same subscription.
+     *
+     * @param id             the id of the subscription.
+     * @param expirationDate the expiration date, {@code null} to unschedule the subscription.
+     */
+    synchronized void schedule(String id, LocalDateTime expirationDate) {
+        this.remove(id);
+        if (expirationDate == null) {
+            return;
+        }
+        this.buckets.computeIfAbsent(this.bucketOf(expirationDate), bucket -> new HashSet<>()).add(id);
+        this.expirations.put(id, expirationDate);
+    }
+
+    /**
+     * Schedules the subscription unless it was scheduled again in the meantime.
+     *
+     * @param id             the id of the subscription.
+     * @param expirationDate the expiration date.
+     */
+    synchronized void scheduleIfAbsent(String id, LocalDateTime expirationDate) {
+        if (!this.expirations.containsKey(id)) {
+            this.schedule(id, expirationDate);
+        }
+    }
+
+    synchronized void remove(String id) {
+        LocalDateTime previous = this.expirations.remove(id);
+        if (previous == null) {
+            return;
+        }
+        long bucket = this.bucketOf(previous);
+        Set<String> ids = this.buckets.get(bucket);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                this.buckets.remove(bucket);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns all subscriptions of the buckets that have fully elapsed at the given time.
+     *
+     * @param now the reference time.
+     * @return the due subscriptions with their expiration dates.
+     */
+    synchronized Map<String, LocalDateTime> pollDue(LocalDateTime now) {
+        Map<String, LocalDateTime> due = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, Set<String>>> elapsed = this.buckets.headMap(this.bucketOf(now), false).entrySet().iterator();
+        while (elapsed.hasNext()) {
+            for (String id : elapsed.next().getValue()) {
+                due.put(id, this.expirations.remove(id));
+            }
+            elapsed.remove();
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return this.expirations.size();
+    }
+
+    private long bucketOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.atZone(this.zone).toInstant().toEpochMilli(), this.resolutionMs);
+    }
+}
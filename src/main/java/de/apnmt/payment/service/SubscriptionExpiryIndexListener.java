@@ -0,0 +1,68 @@
+package de.apnmt.payment.service;
+
+import de.apnmt.payment.common.domain.Subscription;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Hibernate listener keeping the {@link SubscriptionExpiryIndex} in line with the committed subscriptions, whichever
+ * service changed them.
+ */
+class SubscriptionExpiryIndexListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SubscriptionExpiryIndex index;
+
+    SubscriptionExpiryIndexListener(SubscriptionExpiryIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            Subscription subscription = (Subscription) event.getEntity();
+            this.index.schedule(subscription.getId(), subscription.getExpirationDate());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            Subscription subscription = (Subscription) event.getEntity();
+            this.index.schedule(subscription.getId(), subscription.getExpirationDate());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            this.index.remove(String.valueOf(event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was committed, the index stays as it is
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was committed, the index stays as it is
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was committed, the index stays as it is
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Subscription.class.getName().equals(persister.getEntityName());
+    }
+}
@@ -0,0 +1,177 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.repository.SubscriptionExpiryRepository;
+import de.apnmt.payment.service.dto.SubscriptionExpiryDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service firing subscription deactivations from an in-memory {@link SubscriptionExpiryIndex}.
+ * <p>
+ * The index is loaded with the upcoming expirations at startup and kept up to date by a Hibernate listener on every
+ * committed change of a subscription. A tick polls the elapsed buckets and hands the due subscriptions to the
+ * {@link SubscriptionExpirationSweepService}, which re-checks them against the database. Changes committed by other
+ * instances are picked up by a periodic reload of the upcoming expirations.
+ * <p>
+ * The index only ever holds upcoming expirations, so every load is preceded by a sweep of the subscriptions already
+ * expired. The first load sweeps all of them, to catch up on those that expired while the instance was down. Later
+ * reloads only sweep the subscriptions that expired since the previous successful sweep: those committed by other
+ * instances after the previous load, or in a shard another instance owned when they became due. The subscriptions the
+ * index deactivated in the meantime are skipped, so they are not deactivated twice.
+ */
+@Service
+public class SubscriptionExpiryIndexService {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExpiryIndexService.class);
+
+    private final SubscriptionExpiryRepository subscriptionExpiryRepository;
+
+    private final SubscriptionExpirationSweepService sweepService;
+
+    private final EntityListenerRegistrar entityListenerRegistrar;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Expiration expirationProperties;
+
+    private final SubscriptionExpiryIndex index;
+
+    private final Map<String, LocalDateTime> deactivated = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private volatile LocalDateTime lastSweep;
+
+    public SubscriptionExpiryIndexService(SubscriptionExpiryRepository subscriptionExpiryRepository, SubscriptionExpirationSweepService sweepService,
+                                          EntityListenerRegistrar entityListenerRegistrar, PlatformTransactionManager transactionManager,
+                                          ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.subscriptionExpiryRepository = subscriptionExpiryRepository;
+        this.sweepService = sweepService;
+        this.entityListenerRegistrar = entityListenerRegistrar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.expirationProperties = applicationProperties.getExpiration();
+        this.index = new SubscriptionExpiryIndex(this.expirationProperties.getIndex().getResolutionMs(), ZoneId.systemDefault());
+        Gauge.builder("payment.expiration.index.size", this.index, SubscriptionExpiryIndex::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return this.expirationProperties.getIndex().isEnabled();
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        if (!this.isEnabled()) {
+            return;
+        }
+        this.entityListenerRegistrar.registerPostCommit(new SubscriptionExpiryIndexListener(this.index));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (this.isEnabled()) {
+            this.reload();
+        }
+    }
+
+    /**
+     * Sweeps the subscriptions expired since the previous sweep and reloads the upcoming expirations from the database,
+     * to pick up the changes committed by other instances.
+     *
+     * @return the number of upcoming expirations read.
+     */
+    @Scheduled(
+        fixedDelayString = "${application.expiration.index.reconcile-interval-ms:600000}",
+        initialDelayString = "${application.expiration.index.reconcile-interval-ms:600000}"
+    )
+    public int reload() {
+        if (!this.isEnabled()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        this.sweepOverdue(now);
+        int chunkSize = this.expirationProperties.getChunkSize();
+        int total = 0;
+        SubscriptionExpiryDTO last = null;
+        List<SubscriptionExpiryDTO> chunk;
+        do {
+            SubscriptionExpiryDTO after = last;
+            chunk = this.transactionTemplate.execute(status -> after == null
+                ? this.subscriptionExpiryRepository.findUpcoming(now, PageRequest.of(0, chunkSize))
+                : this.subscriptionExpiryRepository.findUpcomingAfter(now, after.getExpirationDate(), after.getId(), PageRequest.of(0, chunkSize)));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            chunk.forEach(expiry -> this.index.schedule(expiry.getId(), expiry.getExpirationDate()));
+            total += chunk.size();
+            last = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == chunkSize);
+        this.loaded = true;
+        this.log.debug("Loaded {} upcoming expirations into the index", total);
+        return total;
+    }
+
+    private void sweepOverdue(LocalDateTime now) {
+        LocalDateTime since = this.lastSweep;
+        try {
+            this.sweepService.sweep(since, now, this.deactivated::containsKey);
+        } catch (RuntimeException e) {
+            this.log.warn("Sweep of the expired subscriptions failed, retrying on the next reload", e);
+            return;
+        }
+        this.lastSweep = now;
+        this.deactivated.values().removeIf(expirationDate -> !expirationDate.isAfter(now));
+    }
+
+    @Scheduled(fixedDelayString = "${application.expiration.index.tick-ms:1000}")
+    public void tick() {
+        if (this.isEnabled() && this.loaded) {
+            this.fireDue(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Deactivates the organizations of all indexed subscriptions due at the given time. Subscriptions whose events could
+     * not be published are kept in the index and retried on the next tick. Subscriptions of shards leased to other
+     * instances are dropped from the index, their owner deactivates them with the sweep of its next reload.
+     *
+     * @param now the reference time.
+     * @return the number of expired subscriptions this instance sent events for.
+     */
+    public int fireDue(LocalDateTime now) {
+        Map<String, LocalDateTime> due = this.index.pollDue(now);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        try {
+            int count = this.sweepService.deactivate(due.keySet(), now);
+            this.deactivated.putAll(due);
+            return count;
+        } catch (RuntimeException e) {
+            this.log.warn("Deactivation of {} due subscriptions failed, retrying on the next tick", due.size(), e);
+            due.forEach(this.index::scheduleIfAbsent);
+            return 0;
+        }
+    }
+
+    int size() {
+        return this.index.size();
+    }
+}
@@ -0,0 +1,98 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.domain.SubscriptionExpiryShard;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Hibernate listener writing the {@link SubscriptionExpiryShard} of every written subscription in the transaction that
+ * wrote it, whichever service changed it.
+ */
+class SubscriptionExpiryShardListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String UPDATE =
+        "update subscription_expiry_shard set shard = :shard, shard_count = :shardCount, expiration_date = :expirationDate " +
+        "where subscription_id = :subscriptionId";
+
+    private static final String INSERT =
+        "insert into subscription_expiry_shard (subscription_id, shard, shard_count, expiration_date) " +
+        "values (:subscriptionId, :shard, :shardCount, :expirationDate)";
+
+    private static final String DELETE = "delete from subscription_expiry_shard where subscription_id = :subscriptionId";
+
+    private final int shardCount;
+
+    SubscriptionExpiryShardListener(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            this.write(event.getSession(), (Subscription) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            this.write(event.getSession(), (Subscription) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Subscription) {
+            String subscriptionId = String.valueOf(event.getId());
+            event.getSession().getActionQueue().registerProcess((BeforeTransactionCompletionProcess) session -> session.createNativeQuery(DELETE)
+                .addSynchronizedEntityClass(SubscriptionExpiryShard.class)
+                .setParameter("subscriptionId", subscriptionId)
+                .executeUpdate());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Writes the shard once the session was flushed, right before the transaction commits.
+     */
+    private void write(EventSource eventSource, Subscription subscription) {
+        String subscriptionId = subscription.getId();
+        LocalDateTime expirationDate = subscription.getExpirationDate();
+        int shard = ShardAssignment.shardOf(subscriptionId, this.shardCount);
+        eventSource.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) session -> {
+            int updated = session.createNativeQuery(UPDATE)
+                .addSynchronizedEntityClass(SubscriptionExpiryShard.class)
+                .setParameter("shard", shard)
+                .setParameter("shardCount", this.shardCount)
+                .setParameter("expirationDate", expirationDate, StandardBasicTypes.LOCAL_DATE_TIME)
+                .setParameter("subscriptionId", subscriptionId)
+                .executeUpdate();
+            if (updated == 0) {
+                session.createNativeQuery(INSERT)
+                    .addSynchronizedEntityClass(SubscriptionExpiryShard.class)
+                    .setParameter("subscriptionId", subscriptionId)
+                    .setParameter("shard", shard)
+                    .setParameter("shardCount", this.shardCount)
+                    .setParameter("expirationDate", expirationDate, StandardBasicTypes.LOCAL_DATE_TIME)
+                    .executeUpdate();
+            }
+        });
+    }
+}
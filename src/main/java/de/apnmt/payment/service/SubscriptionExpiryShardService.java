@@ -0,0 +1,109 @@
+package de.apnmt.payment.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.domain.SubscriptionExpiryShard;
+import de.apnmt.payment.repository.SubscriptionExpiryShardRepository;
+import de.apnmt.payment.service.dto.SubscriptionExpiryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the {@link SubscriptionExpiryShard} of every subscription while sharding is enabled, so the
+ * expiration sweep of an instance reads the rows of its own shards only.
+ * <p>
+ * Every write of a subscription writes its shard in the same transaction. At startup, the subscriptions written while
+ * sharding was disabled, or whose shard was computed for another shard count, are caught up in chunks.
+ */
+@Service
+public class SubscriptionExpiryShardService {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExpiryShardService.class);
+
+    private final SubscriptionExpiryShardRepository subscriptionExpiryShardRepository;
+
+    private final EntityListenerRegistrar entityListenerRegistrar;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Expiration expirationProperties;
+
+    public SubscriptionExpiryShardService(SubscriptionExpiryShardRepository subscriptionExpiryShardRepository,
+                                          EntityListenerRegistrar entityListenerRegistrar, PlatformTransactionManager transactionManager,
+                                          ApplicationProperties applicationProperties) {
+        this.subscriptionExpiryShardRepository = subscriptionExpiryShardRepository;
+        this.entityListenerRegistrar = entityListenerRegistrar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expirationProperties = applicationProperties.getExpiration();
+    }
+
+    public boolean isEnabled() {
+        return this.expirationProperties.getSharding().isEnabled();
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        if (this.isEnabled()) {
+            this.entityListenerRegistrar.registerPostWrite(new SubscriptionExpiryShardListener(this.expirationProperties.getSharding().getShardCount()));
+        }
+    }
+
+    /**
+     * Writes the missing and outdated shards of the subscriptions.
+     *
+     * @return the number of shards written.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int catchUp() {
+        if (!this.isEnabled()) {
+            return 0;
+        }
+        int shardCount = this.expirationProperties.getSharding().getShardCount();
+        PageRequest page = PageRequest.of(0, this.expirationProperties.getChunkSize());
+        int total = this.catchUp(() -> this.subscriptionExpiryShardRepository.findUnsharded(page), shardCount);
+        total += this.catchUp(() -> this.subscriptionExpiryShardRepository.findOutdated(shardCount, page), shardCount);
+        if (total > 0) {
+            this.log.info("Wrote the expiration shards of {} subscriptions", total);
+        }
+        return total;
+    }
+
+    /**
+     * Writes the shards of the chunks returned by the query until it returns no more rows or the rows it returns were
+     * not written, e.g. because they are written by another instance at the same time.
+     */
+    private int catchUp(Supplier<List<SubscriptionExpiryDTO>> query, int shardCount) {
+        int total = 0;
+        List<SubscriptionExpiryDTO> previous = null;
+        while (true) {
+            List<SubscriptionExpiryDTO> chunk = this.transactionTemplate.execute(status -> query.get());
+            if (chunk == null || chunk.isEmpty() || chunk.equals(previous)) {
+                return total;
+            }
+            List<SubscriptionExpiryShard> shards = chunk.stream()
+                .map(expiry -> new SubscriptionExpiryShard().subscriptionId(expiry.getId())
+                    .shard(ShardAssignment.shardOf(expiry.getId(), shardCount))
+                    .shardCount(shardCount)
+                    .expirationDate(expiry.getExpirationDate()))
+                .collect(Collectors.toList());
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> this.subscriptionExpiryShardRepository.saveAll(shards));
+                total += shards.size();
+            } catch (DataIntegrityViolationException e) {
+                this.log.debug("Expiration shards were written by another instance, retrying");
+            }
+            previous = chunk;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package de.apnmt.payment.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.config.ApplicationProperties;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service exporting all subscriptions with their items, prices and organizations.
+ * <p>
+ * The rows are read through a forward-only cursor as scalars, so neither the persistence context nor the heap grows
+ * with the number of subscriptions, and are written to the output stream as they arrive.
+ */
+@Service
+public class SubscriptionExportService {
+
+    /**
+     * Formats of the export.
+     */
+    public enum Format {
+        /**
+         * One JSON object per subscription and line, with its items nested.
+         */
+        NDJSON,
+        /**
+         * One line per subscription item, subscriptions without items have one line with empty item columns.
+         */
+        CSV
+    }
+
+    static final String CSV_HEADER = "subscriptionId,expirationDate,organizationId,itemId,quantity,priceId,amount,currency,interval";
+
+    private static final String EXPORT_QUERY =
+        "select subscription.id, subscription.expirationDate, customer.organizationId, " +
+        "item.id, item.quantity, price.id, price.amount, price.currency, price.interval " +
+        "from Subscription subscription left join subscription.customer customer " +
+        "left join subscription.subscriptionItems item left join item.price price " +
+        "order by subscription.id, item.id";
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExportService.class);
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int fetchSize;
+
+    public SubscriptionExportService(EntityManager entityManager, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                     ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = applicationProperties.getExport().getFetchSize();
+    }
+
+    /**
+     * Writes all subscriptions to the output stream. The stream is flushed but not closed.
+     *
+     * @param format the format of the export.
+     * @param out    the stream to write to.
+     * @return the number of subscriptions written.
+     * @throws IOException if the stream could not be written.
+     */
+    public long export(Format format, OutputStream out) throws IOException {
+        this.log.debug("Request to export all Subscriptions as {}", format);
+        try {
+            Long count = this.transactionTemplate.execute(status -> {
+                try (ScrollableResults rows = this.scroll()) {
+                    return format == Format.CSV ? this.writeCsv(rows, out) : this.writeNdjson(rows, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return count == null ? 0 : count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ScrollableResults scroll() {
+        return this.entityManager.unwrap(Session.class)
+            .createQuery(EXPORT_QUERY)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .setFetchSize(this.fetchSize)
+            .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    private long writeNdjson(ScrollableResults rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // objects are separated by line breaks instead
+        generator.setRootValueSeparator(null);
+        String current = null;
+        while (rows.next()) {
+            Object[] row = rows.get();
+            String id = (String) row[0];
+            // the rows of a subscription are adjacent
+            if (!Objects.equals(id, current)) {
+                if (current != null) {
+                    endSubscription(generator);
+                }
+                current = id;
+                count++;
+                generator.writeStartObject();
+                generator.writeStringField("id", id);
+                generator.writeStringField("expirationDate", row[1] == null ? null : ((LocalDateTime) row[1]).toString());
+                writeNumberField(generator, "organizationId", (Number) row[2]);
+                generator.writeArrayFieldStart("items");
+            }
+            if (row[3] != null) {
+                generator.writeStartObject();
+                generator.writeStringField("id", (String) row[3]);
+                writeNumberField(generator, "quantity", (Number) row[4]);
+                generator.writeStringField("priceId", (String) row[5]);
+                writeNumberField(generator, "amount", (Number) row[6]);
+                generator.writeStringField("currency", stringOf(row[7]));
+                generator.writeStringField("interval", stringOf(row[8]));
+                generator.writeEndObject();
+            }
+        }
+        if (current != null) {
+            endSubscription(generator);
+        }
+        generator.close();
+        out.flush();
+        return count;
+    }
+
+    private static void endSubscription(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value.longValue());
+        }
+    }
+
+    private long writeCsv(ScrollableResults rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        String current = null;
+        while (rows.next()) {
+            Object[] row = rows.get();
+            if (!Objects.equals(row[0], current)) {
+                current = (String) row[0];
+                count++;
+            }
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvOf(row[i]));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String stringOf(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    static String csvOf(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
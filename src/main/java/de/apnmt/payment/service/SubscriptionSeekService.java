@@ -0,0 +1,114 @@
+package de.apnmt.payment.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+import de.apnmt.payment.common.service.mapper.SubscriptionMapper;
+import de.apnmt.payment.repository.SubscriptionFetchPlan;
+import de.apnmt.payment.repository.SubscriptionGraphRepository;
+import de.apnmt.payment.repository.SubscriptionSeekRepository;
+import de.apnmt.payment.service.dto.SubscriptionCursor;
+import de.apnmt.payment.service.dto.SubscriptionSeekPage;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the keyset-paginated listing of the subscriptions.
+ * <p>
+ * Each page continues after the position encoded in the cursor of the previous page, so the cost of a page is
+ * independent of its depth. The total number of subscriptions is only estimated on request, from the planner
+ * statistics on PostgreSQL.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SubscriptionSeekService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionSeekService.class);
+
+    private final SubscriptionSeekRepository subscriptionSeekRepository;
+
+    private final SubscriptionGraphRepository subscriptionGraphRepository;
+
+    private final SubscriptionMapper subscriptionMapper;
+
+    private final EntityManager entityManager;
+
+    public SubscriptionSeekService(SubscriptionSeekRepository subscriptionSeekRepository, SubscriptionGraphRepository subscriptionGraphRepository,
+                                   SubscriptionMapper subscriptionMapper, EntityManager entityManager) {
+        this.subscriptionSeekRepository = subscriptionSeekRepository;
+        this.subscriptionGraphRepository = subscriptionGraphRepository;
+        this.subscriptionMapper = subscriptionMapper;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Get one page of the subscriptions.
+     *
+     * @param cursor        the position to continue after, {@code null} for the first page.
+     * @param size          the maximum number of subscriptions of the page.
+     * @param estimateCount whether the total number of subscriptions should be estimated.
+     * @return the page.
+     */
+    public SubscriptionSeekPage findPage(SubscriptionCursor cursor, int size, boolean estimateCount) {
+        this.log.debug("Request to get a page of Subscriptions after {}", cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // one more key tells whether there is a next page
+        List<SubscriptionCursor> keys = this.findKeys(cursor, pageSize + 1);
+        String nextCursor = null;
+        if (keys.size() > pageSize) {
+            keys = keys.subList(0, pageSize);
+            nextCursor = keys.get(pageSize - 1).encode();
+        }
+        List<String> ids = keys.stream().map(SubscriptionCursor::getId).collect(Collectors.toList());
+        Map<String, Subscription> subscriptions = ids.isEmpty() ? Map.of()
+            : this.subscriptionGraphRepository.findAllByIdIn(ids, SubscriptionFetchPlan.FULL).stream()
+            .collect(Collectors.toMap(Subscription::getId, Function.identity()));
+        List<SubscriptionDTO> content = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Subscription subscription = subscriptions.get(id);
+            // deleted between the two queries
+            if (subscription != null) {
+                content.add(this.subscriptionMapper.toDto(subscription));
+            }
+        }
+        return new SubscriptionSeekPage(content, nextCursor, estimateCount ? this.estimateCount() : null);
+    }
+
+    private List<SubscriptionCursor> findKeys(SubscriptionCursor cursor, int limit) {
+        List<SubscriptionCursor> keys = new ArrayList<>(limit);
+        if (cursor == null || cursor.getExpirationDate() == null) {
+            keys.addAll(this.subscriptionSeekRepository.findUndatedAfter(cursor == null ? "" : cursor.getId(), PageRequest.of(0, limit)));
+            if (keys.size() < limit) {
+                keys.addAll(this.subscriptionSeekRepository.findDated(PageRequest.of(0, limit - keys.size())));
+            }
+        } else {
+            keys.addAll(this.subscriptionSeekRepository.findDatedAfter(cursor.getExpirationDate(), cursor.getId(), PageRequest.of(0, limit)));
+        }
+        return keys;
+    }
+
+    private long estimateCount() {
+        if (this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices()
+            .getDialect() instanceof PostgreSQL81Dialect) {
+            List<?> estimate = this.entityManager.createNativeQuery("select reltuples from pg_class where relname = 'subscription'").getResultList();
+            // never analyzed tables report -1
+            if (!estimate.isEmpty() && ((Number) estimate.get(0)).longValue() >= 0) {
+                return ((Number) estimate.get(0)).longValue();
+            }
+        }
+        return this.subscriptionSeekRepository.count();
+    }
+}
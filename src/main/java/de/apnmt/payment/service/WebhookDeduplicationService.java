@@ -0,0 +1,149 @@
+package de.apnmt.payment.service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.domain.ProcessedWebhookEvent;
+import de.apnmt.payment.repository.ProcessedWebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service remembering the Stripe events that were already processed.
+ * <p>
+ * Recently processed event ids are answered from a bounded in-memory LRU, older ones from the
+ * {@code processed_webhook_event} table, which is cleaned up once the ids are older than Stripe's retry window. An
+ * event is claimed while it is processed, so a concurrent redelivery is not processed twice on this instance.
+ */
+@Service
+public class WebhookDeduplicationService {
+
+    public enum Claim {
+        /**
+         * The event was claimed and has to be processed.
+         */
+        CLAIMED,
+        /**
+         * The event was already processed.
+         */
+        PROCESSED,
+        /**
+         * The event is being processed by another request.
+         */
+        IN_FLIGHT,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(WebhookDeduplicationService.class);
+
+    private final ProcessedWebhookEventRepository processedWebhookEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Webhook.Deduplication deduplication;
+
+    private final Map<String, Boolean> processed;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter duplicateCounter;
+
+    public WebhookDeduplicationService(ProcessedWebhookEventRepository processedWebhookEventRepository, PlatformTransactionManager transactionManager,
+                                       ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.processedWebhookEventRepository = processedWebhookEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deduplication = applicationProperties.getWebhook().getDeduplication();
+        int cacheSize = this.deduplication.getCacheSize();
+        this.processed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return this.size() > cacheSize;
+            }
+        });
+        this.duplicateCounter = Counter.builder("payment.webhook.duplicates").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return this.deduplication.isEnabled();
+    }
+
+    /**
+     * Claims the event for processing.
+     *
+     * @param eventId the id of the Stripe event.
+     * @return whether the event has to be processed.
+     * @throws RuntimeException if the processed events cannot be read, the event is not claimed then.
+     */
+    public Claim claim(String eventId) {
+        if (this.processed.containsKey(eventId)) {
+            this.duplicateCounter.increment();
+            return Claim.PROCESSED;
+        }
+        if (!this.inFlight.add(eventId)) {
+            return Claim.IN_FLIGHT;
+        }
+        boolean exists;
+        try {
+            exists = this.processedWebhookEventRepository.existsById(eventId);
+        } catch (RuntimeException e) {
+            // a redelivery has to be able to claim the event again
+            this.inFlight.remove(eventId);
+            throw e;
+        }
+        if (exists) {
+            this.processed.put(eventId, Boolean.TRUE);
+            this.inFlight.remove(eventId);
+            this.duplicateCounter.increment();
+            return Claim.PROCESSED;
+        }
+        return Claim.CLAIMED;
+    }
+
+    /**
+     * Records a claimed event as processed.
+     *
+     * @param eventId the id of the Stripe event.
+     */
+    public void markProcessed(String eventId) {
+        try {
+            this.processedWebhookEventRepository.saveAndFlush(new ProcessedWebhookEvent().eventId(eventId).processedAt(Instant.now()));
+        } catch (DataIntegrityViolationException e) {
+            this.log.debug("Stripe event {} was recorded by another instance", eventId);
+        } finally {
+            this.processed.put(eventId, Boolean.TRUE);
+            this.inFlight.remove(eventId);
+        }
+    }
+
+    /**
+     * Gives up the claim of an event that could not be processed, so a redelivery processes it again.
+     *
+     * @param eventId the id of the Stripe event.
+     */
+    public void release(String eventId) {
+        this.inFlight.remove(eventId);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.webhook.deduplication.cleanup-interval-ms:3600000}",
+        initialDelayString = "${application.webhook.deduplication.cleanup-interval-ms:3600000}"
+    )
+    public void cleanup() {
+        Instant before = Instant.now().minusMillis(this.deduplication.getTtlMs());
+        Integer deleted = this.transactionTemplate.execute(status -> this.processedWebhookEventRepository.deleteProcessedBefore(before));
+        this.log.debug("Removed {} processed Stripe events older than {}", deleted, before);
+    }
+}
@@ -0,0 +1,84 @@
+package de.apnmt.payment.service;
+
+/**
+ * Marks the current thread as handling a Stripe webhook, so asynchronous work started by it is routed to the
+ * {@link WebhookProcessingStage} with the capacity reserved for the request, on the lane of the subscription the
+ * webhook is about.
+ */
+public final class WebhookDispatchContext {
+
+    private static final ThreadLocal<WebhookDispatchContext> CURRENT = new ThreadLocal<>();
+
+    private boolean reserved = true;
+
+    private String lane;
+
+    private String eventType;
+
+    private int tasks;
+
+    private WebhookDispatchContext() {
+    }
+
+    /**
+     * Opens a context holding one reservation of the stage.
+     *
+     * @return the opened context.
+     */
+    public static WebhookDispatchContext open() {
+        WebhookDispatchContext context = new WebhookDispatchContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static WebhookDispatchContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Assigns the webhook to the lane of a subscription.
+     *
+     * @param lane      the id of the subscription the webhook is about, {@code null} if it is about none.
+     * @param eventType the Stripe event type of the webhook.
+     */
+    public void assign(String lane, String eventType) {
+        this.lane = lane;
+        this.eventType = eventType;
+    }
+
+    public String getLane() {
+        return this.lane;
+    }
+
+    /**
+     * Returns the key telling apart the tasks started by this webhook: two tasks with the same key do the same work
+     * for webhooks of the same type.
+     *
+     * @return the key of the next task, {@code null} if the webhook has no event type.
+     */
+    public String nextTaskKey() {
+        int task = this.tasks++;
+        return this.eventType != null ? this.eventType + "#" + task : null;
+    }
+
+    /**
+     * Takes the reservation of the context.
+     *
+     * @return {@code true} if the reservation was still available.
+     */
+    public boolean takeReservation() {
+        boolean available = this.reserved;
+        this.reserved = false;
+        return available;
+    }
+
+    /**
+     * Closes the context.
+     *
+     * @return {@code true} if the reservation was not taken and has to be given back.
+     */
+    public boolean close() {
+        CURRENT.remove();
+        return this.takeReservation();
+    }
+}
@@ -0,0 +1,295 @@
+package de.apnmt.payment.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.config.VirtualThreadSupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Dedicated, bounded stage processing the asynchronous work of the Stripe webhooks.
+ * <p>
+ * Capacity is reserved per webhook request before the request is handled, so a saturated stage can be reported to
+ * Stripe as back-pressure instead of failing the request after the event was already parsed. On virtual threads every
+ * task gets its own thread and the concurrency is bounded by permits instead of by the size of a pool.
+ * <p>
+ * Work on a lane, the webhooks of one subscription, runs one task after another in the order it was received, so the
+ * webhooks of an invoice cycle do not compete for the row of the subscription, while the lanes of different
+ * subscriptions run in parallel. A task waiting on its lane behind a task of the same webhook type is redundant, the
+ * waiting task reads the state of the subscription from Stripe when it runs, and is dropped.
+ */
+@Service
+public class WebhookProcessingStage {
+
+    private static final String THREAD_NAME_PREFIX = "paymentservice-webhook-";
+
+    private final Logger log = LoggerFactory.getLogger(WebhookProcessingStage.class);
+
+    private final ExecutorService executor;
+
+    private final Semaphore slots;
+
+    private final Semaphore running;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Timer waitTimer;
+
+    private final Timer processingTimer;
+
+    private final Counter rejectedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final boolean lanesEnabled;
+
+    private final Set<String> coalescedEventTypes;
+
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public WebhookProcessingStage(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Webhook webhook = applicationProperties.getWebhook();
+        this.slots = new Semaphore(webhook.getConcurrency() + webhook.getQueueCapacity());
+        this.running = new Semaphore(webhook.getConcurrency());
+        if (VirtualThreadSupport.isEnabled(applicationProperties)) {
+            this.executor = VirtualThreadSupport.newThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+        } else {
+            // the queue is bounded by the slots
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(webhook.getConcurrency(), webhook.getConcurrency(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+        Gauge.builder("payment.webhook.queue", this.queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("payment.webhook.active", this.active, AtomicInteger::get).register(meterRegistry);
+        this.waitTimer = Timer.builder("payment.webhook.wait").description("Time webhook work waited in the queue").register(meterRegistry);
+        this.processingTimer = Timer.builder("payment.webhook.processing").description("Time spent processing webhook work").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("payment.webhook.rejected").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("payment.webhook.coalesced").description("Webhook work dropped as redundant on its lane")
+            .register(meterRegistry);
+        this.lanesEnabled = webhook.getLanes().isEnabled();
+        this.coalescedEventTypes = Set.copyOf(webhook.getLanes().getCoalescedEventTypes());
+        Gauge.builder("payment.webhook.lanes", this.lanes, ConcurrentMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Reserves capacity for one unit of work.
+     *
+     * @return {@code true} if capacity was reserved, {@code false} if the stage is saturated.
+     */
+    public boolean tryReserve() {
+        if (this.slots.tryAcquire()) {
+            return true;
+        }
+        this.rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Gives back a reservation that was not used.
+     */
+    public void release() {
+        this.slots.release();
+    }
+
+    /**
+     * Runs the task on the stage, using a reservation obtained by {@link #tryReserve()}.
+     *
+     * @param task the task to run.
+     */
+    public void execute(Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        this.queued.incrementAndGet();
+        try {
+            this.executor.execute(() -> this.run(task, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            this.queued.decrementAndGet();
+            this.slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the task on the lane of a subscription, using a reservation obtained by {@link #tryReserve()}. The task is
+     * dropped if a task with the same key of a coalesced webhook type is still waiting on the lane.
+     *
+     * @param task    the task to run.
+     * @param lane    the id of the subscription, {@code null} to run the task without ordering.
+     * @param taskKey the key of the task, see {@link WebhookDispatchContext#nextTaskKey()}.
+     */
+    public void execute(Runnable task, String lane, String taskKey) {
+        if (lane == null || !this.lanesEnabled) {
+            this.execute(task);
+            return;
+        }
+        Work work = new Work(task, this.isCoalesced(taskKey) ? taskKey : null, System.nanoTime());
+        this.queued.incrementAndGet();
+        while (true) {
+            Lane current = this.lanes.computeIfAbsent(lane, key -> new Lane());
+            boolean start;
+            synchronized (current) {
+                if (current.closed) {
+                    // drained and removed in the meantime
+                    continue;
+                }
+                if (work.coalescingKey != null && current.isWaiting(work.coalescingKey)) {
+                    this.queued.decrementAndGet();
+                    this.slots.release();
+                    this.coalescedCounter.increment();
+                    return;
+                }
+                current.waiting.add(work);
+                start = !current.started;
+                current.started = true;
+            }
+            if (start) {
+                this.startDraining(lane, current);
+            }
+            return;
+        }
+    }
+
+    private void startDraining(String key, Lane lane) {
+        try {
+            this.executor.execute(() -> this.drain(key, lane));
+        } catch (RejectedExecutionException e) {
+            synchronized (lane) {
+                lane.closed = true;
+                this.lanes.remove(key, lane);
+                int dropped = lane.waiting.size();
+                lane.waiting.clear();
+                this.queued.addAndGet(-dropped);
+                this.slots.release(dropped);
+            }
+            throw e;
+        }
+    }
+
+    private void drain(String key, Lane lane) {
+        while (true) {
+            Work work;
+            synchronized (lane) {
+                work = lane.waiting.poll();
+                if (work == null) {
+                    lane.closed = true;
+                    this.lanes.remove(key, lane);
+                    return;
+                }
+            }
+            try {
+                this.run(work.task, work.enqueuedAt);
+            } catch (RuntimeException e) {
+                // the following work of the lane still has to run
+                this.log.error("Webhook work on lane {} failed", key, e);
+            }
+        }
+    }
+
+    private boolean isCoalesced(String taskKey) {
+        if (taskKey == null) {
+            return false;
+        }
+        int separator = taskKey.lastIndexOf('#');
+        return this.coalescedEventTypes.contains(separator < 0 ? taskKey : taskKey.substring(0, separator));
+    }
+
+    int laneCount() {
+        return this.lanes.size();
+    }
+
+    private void run(Runnable task, long enqueuedAt) {
+        try {
+            this.running.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.queued.decrementAndGet();
+            this.slots.release();
+            return;
+        }
+        this.queued.decrementAndGet();
+        this.active.incrementAndGet();
+        long startedAt = System.nanoTime();
+        this.waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            task.run();
+        } finally {
+            this.processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            this.active.decrementAndGet();
+            this.running.release();
+            this.slots.release();
+        }
+    }
+
+    /**
+     * Work waiting on a lane.
+     */
+    private static final class Work {
+
+        private final Runnable task;
+
+        private final String coalescingKey;
+
+        private final long enqueuedAt;
+
+        private Work(Runnable task, String coalescingKey, long enqueuedAt) {
+            this.task = task;
+            this.coalescingKey = coalescingKey;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Work of one subscription, drained by a single task at a time.
+     */
+    private static final class Lane {
+
+        private final Deque<Work> waiting = new ArrayDeque<>();
+
+        private boolean started;
+
+        private boolean closed;
+
+        private boolean isWaiting(String coalescingKey) {
+            for (Work work : this.waiting) {
+                if (coalescingKey.equals(work.coalescingKey)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                this.log.warn("Webhook stage did not terminate, {} tasks dropped", this.executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.apnmt.payment.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO for one checkout of a bulk checkout: the subscription of a customer to a list of prices, paid with the given
+ * payment method.
+ */
+public class BulkCheckoutRequestDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String customerId;
+
+    private String paymentMethod;
+
+    private List<Item> items;
+
+    public String getCustomerId() {
+        return this.customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getPaymentMethod() {
+        return this.paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public List<Item> getItems() {
+        return this.items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkCheckoutRequestDTO{" +
+            "customerId='" + this.getCustomerId() + "'" +
+            ", items=" + this.getItems() +
+            "}";
+    }
+
+    /**
+     * A price subscribed to with its quantity.
+     */
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String priceId;
+
+        private Integer quantity;
+
+        public String getPriceId() {
+            return this.priceId;
+        }
+
+        public void setPriceId(String priceId) {
+            this.priceId = priceId;
+        }
+
+        public Integer getQuantity() {
+            return this.quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Item{" +
+                "priceId='" + this.getPriceId() + "'" +
+                ", quantity=" + this.getQuantity() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.apnmt.payment.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the outcome of one checkout of a bulk checkout, in the order of the request.
+ */
+public class BulkCheckoutResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        CREATED,
+        FAILED,
+    }
+
+    private int index;
+
+    private String customerId;
+
+    private String subscriptionId;
+
+    private Status status;
+
+    private String error;
+
+    public static BulkCheckoutResultDTO created(int index, String customerId, String subscriptionId) {
+        BulkCheckoutResultDTO result = new BulkCheckoutResultDTO();
+        result.setIndex(index);
+        result.setCustomerId(customerId);
+        result.setSubscriptionId(subscriptionId);
+        result.setStatus(Status.CREATED);
+        return result;
+    }
+
+    public static BulkCheckoutResultDTO failed(int index, String customerId, String error) {
+        BulkCheckoutResultDTO result = new BulkCheckoutResultDTO();
+        result.setIndex(index);
+        result.setCustomerId(customerId);
+        result.setStatus(Status.FAILED);
+        result.setError(error);
+        return result;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getCustomerId() {
+        return this.customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getSubscriptionId() {
+        return this.subscriptionId;
+    }
+
+    public void setSubscriptionId(String subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkCheckoutResultDTO{" +
+            "index=" + this.getIndex() +
+            ", customerId='" + this.getCustomerId() + "'" +
+            ", subscriptionId='" + this.getSubscriptionId() + "'" +
+            ", status=" + this.getStatus() +
+            ", error='" + this.getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,86 @@
+package de.apnmt.payment.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+import de.apnmt.payment.common.service.dto.PriceDTO;
+
+/**
+ * A DTO for a product of the catalog snapshot, with its prices.
+ */
+public class CatalogProductDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+
+    private String name;
+
+    private String description;
+
+    private List<PriceDTO> prices;
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<PriceDTO> getPrices() {
+        return this.prices;
+    }
+
+    public void setPrices(List<PriceDTO> prices) {
+        this.prices = prices;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CatalogProductDTO)) {
+            return false;
+        }
+        CatalogProductDTO catalogProductDTO = (CatalogProductDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, catalogProductDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogProductDTO{" +
+            "id='" + this.getId() + "'" +
+            ", name='" + this.getName() + "'" +
+            ", description='" + this.getDescription() + "'" +
+            ", prices=" + this.getPrices() +
+            "}";
+    }
+}
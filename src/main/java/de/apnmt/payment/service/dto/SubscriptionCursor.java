@@ -0,0 +1,96 @@
+package de.apnmt.payment.service.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position of a {@link de.apnmt.payment.common.domain.Subscription} in the {@code (expirationDate, id)} order of the
+ * seek listing, exchanged with the clients as an opaque continuation token.
+ */
+public class SubscriptionCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String VERSION = "1:";
+
+    private final LocalDateTime expirationDate;
+
+    private final String id;
+
+    public SubscriptionCursor(LocalDateTime expirationDate, String id) {
+        this.expirationDate = expirationDate;
+        this.id = id;
+    }
+
+    public LocalDateTime getExpirationDate() {
+        return this.expirationDate;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * @return the continuation token of this position.
+     */
+    public String encode() {
+        String position = VERSION + (this.expirationDate == null ? "" : this.expirationDate.toString()) + "|" + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token the token returned by {@link #encode()}.
+     * @return the position.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static SubscriptionCursor decode(String token) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int separator = position.indexOf('|');
+        if (!position.startsWith(VERSION) || separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        String expirationDate = position.substring(VERSION.length(), separator);
+        try {
+            return new SubscriptionCursor(expirationDate.isEmpty() ? null : LocalDateTime.parse(expirationDate), position.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SubscriptionCursor)) {
+            return false;
+        }
+        SubscriptionCursor that = (SubscriptionCursor) o;
+        return Objects.equals(this.expirationDate, that.expirationDate) && Objects.equals(this.id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.expirationDate, this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SubscriptionCursor{" +
+            "expirationDate='" + this.getExpirationDate() + "'" +
+            ", id='" + this.getId() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,64 @@
+package de.apnmt.payment.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A DTO carrying the expiration of a {@link de.apnmt.payment.common.domain.Subscription} and the organization it belongs to,
+ * selected without loading the entity.
+ */
+public class SubscriptionExpiryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+
+    private final LocalDateTime expirationDate;
+
+    private final Long organizationId;
+
+    public SubscriptionExpiryDTO(String id, LocalDateTime expirationDate, Long organizationId) {
+        this.id = id;
+        this.expirationDate = expirationDate;
+        this.organizationId = organizationId;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public LocalDateTime getExpirationDate() {
+        return this.expirationDate;
+    }
+
+    public Long getOrganizationId() {
+        return this.organizationId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SubscriptionExpiryDTO)) {
+            return false;
+        }
+        return Objects.equals(this.id, ((SubscriptionExpiryDTO) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SubscriptionExpiryDTO{" +
+            "id='" + this.getId() + "'" +
+            ", expirationDate='" + this.getExpirationDate() + "'" +
+            ", organizationId=" + this.getOrganizationId() +
+            "}";
+    }
+}
@@ -0,0 +1,41 @@
+package de.apnmt.payment.service.dto;
+
+import java.util.List;
+
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+
+/**
+ * A page of the subscription seek listing.
+ */
+public class SubscriptionSeekPage {
+
+    private final List<SubscriptionDTO> content;
+
+    private final String nextCursor;
+
+    private final Long estimatedCount;
+
+    public SubscriptionSeekPage(List<SubscriptionDTO> content, String nextCursor, Long estimatedCount) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.estimatedCount = estimatedCount;
+    }
+
+    public List<SubscriptionDTO> getContent() {
+        return this.content;
+    }
+
+    /**
+     * @return the continuation token of the next page, {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * @return the estimated number of subscriptions, {@code null} if it was not requested.
+     */
+    public Long getEstimatedCount() {
+        return this.estimatedCount;
+    }
+}
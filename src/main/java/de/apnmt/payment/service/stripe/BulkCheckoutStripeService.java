@@ -0,0 +1,77 @@
+package de.apnmt.payment.service.stripe;
+
+import java.util.List;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Customer;
+import com.stripe.model.PaymentMethod;
+import com.stripe.model.Subscription;
+import com.stripe.param.CustomerUpdateParams;
+import com.stripe.param.PaymentMethodAttachParams;
+import com.stripe.param.SubscriptionCreateParams;
+import de.apnmt.payment.service.dto.BulkCheckoutRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the Stripe round trips of a bulk checkout. Objects are addressed by id, so no call retrieves an object
+ * only to update it.
+ */
+@Service
+public class BulkCheckoutStripeService {
+
+    private final long trialPeriodDays;
+
+    public BulkCheckoutStripeService(@Value("${application.payservice.trial-period-days:0}") long trialPeriodDays) {
+        this.trialPeriodDays = trialPeriodDays;
+    }
+
+    /**
+     * Attaches the payment method to the customer.
+     *
+     * @param customerId    the id of the Stripe customer.
+     * @param paymentMethod the id of the Stripe payment method.
+     * @throws StripeException if the Stripe call failed.
+     */
+    public void attachPaymentMethod(String customerId, String paymentMethod) throws StripeException {
+        PaymentMethod method = new PaymentMethod();
+        method.setId(paymentMethod);
+        method.attach(PaymentMethodAttachParams.builder().setCustomer(customerId).build());
+    }
+
+    /**
+     * Makes the attached payment method the default payment method of the customer's invoices.
+     *
+     * @param customerId    the id of the Stripe customer.
+     * @param paymentMethod the id of the Stripe payment method.
+     * @throws StripeException if the Stripe call failed.
+     */
+    public void setDefaultPaymentMethod(String customerId, String paymentMethod) throws StripeException {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        customer.update(
+            CustomerUpdateParams.builder()
+                .setInvoiceSettings(CustomerUpdateParams.InvoiceSettings.builder().setDefaultPaymentMethod(paymentMethod).build())
+                .build()
+        );
+    }
+
+    /**
+     * Creates the subscription of the customer.
+     *
+     * @param customerId the id of the Stripe customer.
+     * @param items      the prices subscribed to.
+     * @return the created Stripe subscription.
+     * @throws StripeException if the Stripe call failed.
+     */
+    public Subscription createSubscription(String customerId, List<BulkCheckoutRequestDTO.Item> items) throws StripeException {
+        SubscriptionCreateParams.Builder params = SubscriptionCreateParams.builder().setCustomer(customerId);
+        for (BulkCheckoutRequestDTO.Item item : items) {
+            params.addItem(SubscriptionCreateParams.Item.builder().setPrice(item.getPriceId()).setQuantity(item.getQuantity().longValue()).build());
+        }
+        if (this.trialPeriodDays > 0) {
+            params.setTrialPeriodDays(this.trialPeriodDays);
+        }
+        return Subscription.create(params.build());
+    }
+}
@@ -0,0 +1,59 @@
+package de.apnmt.payment.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import de.apnmt.payment.service.WebhookDispatchContext;
+import de.apnmt.payment.service.WebhookProcessingStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter reserving capacity of the {@link WebhookProcessingStage} for every Stripe webhook. When the stage is
+ * saturated the webhook is answered with {@code 503 Service Unavailable} and a {@code Retry-After} header, so Stripe
+ * retries it later instead of queueing it here.
+ */
+public class WebhookBackPressureFilter extends OncePerRequestFilter {
+
+    private final Logger log = LoggerFactory.getLogger(WebhookBackPressureFilter.class);
+
+    private final WebhookProcessingStage stage;
+
+    private final int retryAfterSeconds;
+
+    public WebhookBackPressureFilter(WebhookProcessingStage stage, int retryAfterSeconds) {
+        this.stage = stage;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        if (!this.stage.tryReserve()) {
+            this.log.warn("Webhook processing stage is saturated, asking Stripe to retry in {}s", this.retryAfterSeconds);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(this.retryAfterSeconds));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        WebhookDispatchContext context = WebhookDispatchContext.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (context.close()) {
+                this.stage.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.apnmt.payment.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.apnmt.payment.service.WebhookDeduplicationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter acknowledging redeliveries of already processed Stripe events with {@code 204 No Content}, before the event
+ * is parsed, fetched from Stripe or written to the database.
+ */
+public class WebhookDeduplicationFilter extends OncePerRequestFilter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Logger log = LoggerFactory.getLogger(WebhookDeduplicationFilter.class);
+
+    private final WebhookDeduplicationService deduplicationService;
+
+    public WebhookDeduplicationFilter(WebhookDeduplicationService deduplicationService) {
+        this.deduplicationService = deduplicationService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !this.deduplicationService.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, StreamUtils.copyToByteArray(request.getInputStream()));
+        String eventId = eventIdOf(cachedRequest.getBody());
+        if (eventId == null) {
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+        WebhookDeduplicationService.Claim claim = null;
+        boolean processed = false;
+        try {
+            claim = this.deduplicationService.claim(eventId);
+            switch (claim) {
+                case PROCESSED:
+                    this.log.debug("Stripe event {} was already processed", eventId);
+                    response.setStatus(HttpStatus.NO_CONTENT.value());
+                    return;
+                case IN_FLIGHT:
+                    this.log.debug("Stripe event {} is being processed", eventId);
+                    response.sendError(HttpStatus.CONFLICT.value());
+                    return;
+                default:
+                    break;
+            }
+            filterChain.doFilter(cachedRequest, response);
+            processed = HttpStatus.valueOf(response.getStatus()).is2xxSuccessful();
+        } finally {
+            if (processed) {
+                this.deduplicationService.markProcessed(eventId);
+            } else if (claim == null || claim == WebhookDeduplicationService.Claim.CLAIMED) {
+                // the claim of another request in flight is left alone
+                this.deduplicationService.release(eventId);
+            }
+        }
+    }
+
+    /**
+     * Reads the top-level {@code id} of a Stripe event without binding the whole event.
+     *
+     * @param body the JSON body of the webhook.
+     * @return the event id, or {@code null} if the body has none.
+     */
+    static String eventIdOf(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // not a JSON object, left to the handler to reject
+        }
+        return null;
+    }
+}
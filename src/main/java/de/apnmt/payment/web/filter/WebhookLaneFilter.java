@@ -0,0 +1,110 @@
+package de.apnmt.payment.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.apnmt.payment.service.WebhookDispatchContext;
+import de.apnmt.payment.service.WebhookProcessingStage;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter assigning every Stripe webhook to the lane of the subscription it is about, so its work runs on the
+ * {@link WebhookProcessingStage} after the work of the webhooks received before for the same subscription.
+ */
+public class WebhookLaneFilter extends OncePerRequestFilter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        WebhookDispatchContext context = WebhookDispatchContext.current();
+        if (context == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CachedBodyHttpServletRequest cachedRequest = request instanceof CachedBodyHttpServletRequest
+            ? (CachedBodyHttpServletRequest) request
+            : new CachedBodyHttpServletRequest(request, StreamUtils.copyToByteArray(request.getInputStream()));
+        assign(cachedRequest.getBody(), context);
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    /**
+     * Reads the type of a Stripe event and the subscription it is about without binding the whole event: the
+     * {@code subscription} of the event object, e.g. of an invoice, or the {@code id} of a subscription event object.
+     *
+     * @param body    the JSON body of the webhook.
+     * @param context the context to assign the lane to.
+     */
+    static void assign(byte[] body, WebhookDispatchContext context) {
+        String type = null;
+        String subscription = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    subscription = subscriptionOf(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // not a JSON object, left to the handler to reject
+            return;
+        }
+        context.assign(subscription, type);
+    }
+
+    /**
+     * Reads the subscription of the {@code object} of the event data the parser is positioned at, consuming the data.
+     */
+    private static String subscriptionOf(JsonParser parser) throws IOException {
+        String subscription = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (!"object".equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String objectName = null;
+            String id = null;
+            String subscriptionField = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String objectField = parser.getCurrentName();
+                JsonToken objectValue = parser.nextToken();
+                if (objectValue == JsonToken.VALUE_STRING && "object".equals(objectField)) {
+                    objectName = parser.getText();
+                } else if (objectValue == JsonToken.VALUE_STRING && "id".equals(objectField)) {
+                    id = parser.getText();
+                } else if (objectValue == JsonToken.VALUE_STRING && "subscription".equals(objectField)) {
+                    subscriptionField = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            subscription = "subscription".equals(objectName) ? id : subscriptionField;
+        }
+        return subscription;
+    }
+}
@@ -0,0 +1,71 @@
+package de.apnmt.payment.web.rest;
+
+import java.util.List;
+
+import de.apnmt.payment.service.CatalogSnapshot;
+import de.apnmt.payment.service.CatalogSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving the product catalog with its prices.
+ */
+@RestController
+@RequestMapping("/api")
+public class CatalogResource {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogResource.class);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogResource(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    /**
+     * {@code GET  /catalog} : get all the products with their prices.
+     *
+     * @param ifNoneMatch the entity tags known to the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the catalog in body, or with status
+     * {@code 304 (Not Modified)} if the catalog matches one of the given entity tags.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<byte[]> getCatalog(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch) {
+        this.log.debug("REST request to get the catalog");
+        CatalogSnapshot snapshot = this.catalogSnapshotService.getSnapshot();
+        if (matches(ifNoneMatch, snapshot.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(snapshot.getETag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(snapshot.getBody());
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.trim();
+            // weak comparison, as required for If-None-Match
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || eTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
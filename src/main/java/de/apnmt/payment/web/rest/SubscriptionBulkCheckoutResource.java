@@ -0,0 +1,52 @@
+package de.apnmt.payment.web.rest;
+
+import java.util.List;
+
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.service.BulkCheckoutService;
+import de.apnmt.payment.service.dto.BulkCheckoutRequestDTO;
+import de.apnmt.payment.service.dto.BulkCheckoutResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller creating many subscriptions in one request.
+ */
+@RestController
+@RequestMapping("/api")
+public class SubscriptionBulkCheckoutResource {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionBulkCheckoutResource.class);
+
+    private final BulkCheckoutService bulkCheckoutService;
+
+    private final int maxItems;
+
+    public SubscriptionBulkCheckoutResource(BulkCheckoutService bulkCheckoutService, ApplicationProperties applicationProperties) {
+        this.bulkCheckoutService = bulkCheckoutService;
+        this.maxItems = applicationProperties.getBulkCheckout().getMaxItems();
+    }
+
+    /**
+     * {@code POST  /subscriptions/checkout/bulk} : create the subscriptions of many checkouts.
+     *
+     * @param requests the checkouts.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of every checkout in body, in the
+     * order of the request, or with status {@code 400 (Bad Request)} if the request is empty or holds too many checkouts.
+     */
+    @PostMapping("/subscriptions/checkout/bulk")
+    public ResponseEntity<List<BulkCheckoutResultDTO>> checkout(@RequestBody List<BulkCheckoutRequestDTO> requests) {
+        this.log.debug("REST request to check out {} Subscriptions", requests.size());
+        if (requests.isEmpty() || requests.size() > this.maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A bulk checkout holds between 1 and " + this.maxItems + " checkouts");
+        }
+        return ResponseEntity.ok(this.bulkCheckoutService.checkout(requests));
+    }
+}
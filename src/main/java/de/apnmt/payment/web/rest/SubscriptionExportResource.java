@@ -0,0 +1,70 @@
+package de.apnmt.payment.web.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+import de.apnmt.payment.service.SubscriptionExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller exporting all subscriptions.
+ */
+@RestController
+@RequestMapping("/api")
+public class SubscriptionExportResource {
+
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    static final String CSV_CONTENT_TYPE = "text/csv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExportResource.class);
+
+    private final SubscriptionExportService subscriptionExportService;
+
+    public SubscriptionExportResource(SubscriptionExportService subscriptionExportService) {
+        this.subscriptionExportService = subscriptionExportService;
+    }
+
+    /**
+     * {@code GET  /subscriptions/export} : export all subscriptions with their items, prices and organizations.
+     * <p>
+     * The export is written to the response while it is read from the database, compressed with gzip.
+     *
+     * @param format   the format of the export, {@code ndjson} or {@code csv}.
+     * @param response the response to write the export to.
+     * @throws IOException if the response could not be written.
+     */
+    @GetMapping("/subscriptions/export")
+    public void exportSubscriptions(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        this.log.debug("REST request to export all Subscriptions as {}", format);
+        SubscriptionExportService.Format exportFormat;
+        try {
+            exportFormat = SubscriptionExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format " + format, e);
+        }
+        String extension = exportFormat.name().toLowerCase(Locale.ROOT);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(exportFormat == SubscriptionExportService.Format.CSV ? CSV_CONTENT_TYPE : NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"subscriptions." + extension + "\"");
+        try (OutputStream out = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE)) {
+            long count = this.subscriptionExportService.export(exportFormat, out);
+            this.log.debug("Exported {} Subscriptions", count);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package de.apnmt.payment.web.rest;
+
+import java.util.List;
+
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+import de.apnmt.payment.service.SubscriptionSeekService;
+import de.apnmt.payment.service.dto.SubscriptionCursor;
+import de.apnmt.payment.service.dto.SubscriptionSeekPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller walking the subscriptions with keyset pagination.
+ */
+@RestController
+@RequestMapping("/api")
+public class SubscriptionSeekResource {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String ESTIMATED_COUNT_HEADER = "X-Estimated-Count";
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionSeekResource.class);
+
+    private final SubscriptionSeekService subscriptionSeekService;
+
+    public SubscriptionSeekResource(SubscriptionSeekService subscriptionSeekService) {
+        this.subscriptionSeekService = subscriptionSeekService;
+    }
+
+    /**
+     * {@code GET  /subscriptions/seek} : get a page of the subscriptions ordered by expiration date and id.
+     *
+     * @param cursor the continuation token of the previous page, absent for the first page.
+     * @param size   the maximum number of subscriptions of the page.
+     * @param count  whether the total number of subscriptions should be estimated.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the subscriptions in body, the continuation
+     * token of the next page in the {@code X-Next-Cursor} header and the estimated count in the {@code X-Estimated-Count}
+     * header.
+     */
+    @GetMapping("/subscriptions/seek")
+    public ResponseEntity<List<SubscriptionDTO>> getSubscriptions(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(defaultValue = "false") boolean count) {
+        this.log.debug("REST request to get a page of Subscriptions after cursor {}", cursor);
+        SubscriptionCursor position;
+        try {
+            position = cursor == null || cursor.isEmpty() ? null : SubscriptionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        SubscriptionSeekPage page = this.subscriptionSeekService.findPage(position, size, count);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (page.getEstimatedCount() != null) {
+            headers.add(ESTIMATED_COUNT_HEADER, String.valueOf(page.getEstimatedCount()));
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+}
@@ -0,0 +1,45 @@
+package de.apnmt.payment;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements prepared and the entities loaded by Hibernate, to assert the cost of a read path.
+ */
+public class StatementCounter implements AutoCloseable {
+
+    private final Statistics statistics;
+
+    private final boolean wasEnabled;
+
+    private StatementCounter(Statistics statistics) {
+        this.statistics = statistics;
+        this.wasEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    /**
+     * Starts counting from zero.
+     *
+     * @param entityManagerFactory the entity manager factory of the statements.
+     * @return the counter, closing it restores the previous statistics setting.
+     */
+    public static StatementCounter start(EntityManagerFactory entityManagerFactory) {
+        return new StatementCounter(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    public long count() {
+        return this.statistics.getPrepareStatementCount();
+    }
+
+    public long entityLoadCount() {
+        return this.statistics.getEntityLoadCount();
+    }
+
+    @Override
+    public void close() {
+        this.statistics.setStatisticsEnabled(this.wasEnabled);
+    }
+}
@@ -0,0 +1,78 @@
+package de.apnmt.payment.aop.logging;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoggingAspectTest {
+
+    private final MethodTimingEndpoint methodTimings = new MethodTimingEndpoint();
+
+    private final LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), this.methodTimings, 1.0);
+
+    @Test
+    void timesInheritedMethodsPerBean() throws Throwable {
+        Method method = Lookup.class.getMethod("find", String.class);
+
+        this.aspect.logAround(joinPoint(new FirstLookup(), method));
+        this.aspect.logAround(joinPoint(new SecondLookup(), method));
+        this.aspect.logAround(joinPoint(new SecondLookup(), method));
+
+        assertThat(this.methodTimings.timingOf("FirstLookup.find").count()).isEqualTo(1);
+        assertThat(this.methodTimings.timingOf("SecondLookup.find").count()).isEqualTo(2);
+        assertThat(this.methodTimings.timingOf("Lookup.find").count()).isZero();
+    }
+
+    @Test
+    void timesProxiedInterfacesByInterface() throws Throwable {
+        Method method = Lookup.class.getMethod("find", String.class);
+        Object repository = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CustomerLookup.class },
+            (proxy, invoked, args) -> "found");
+
+        this.aspect.logAround(joinPoint(repository, method));
+
+        assertThat(this.methodTimings.timingOf("CustomerLookup.find").count()).isEqualTo(1);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object target, Method method) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getDeclaringType()).thenReturn(method.getDeclaringClass());
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(target);
+        when(joinPoint.getArgs()).thenReturn(new Object[] { "id" });
+        when(joinPoint.proceed()).thenReturn("found");
+        return joinPoint;
+    }
+
+    interface Lookup {
+        String find(String id);
+    }
+
+    interface CustomerLookup extends Lookup {
+    }
+
+    static class FirstLookup implements Lookup {
+
+        @Override
+        public String find(String id) {
+            return id;
+        }
+    }
+
+    static class SecondLookup implements Lookup {
+
+        @Override
+        public String find(String id) {
+            return id;
+        }
+    }
+}
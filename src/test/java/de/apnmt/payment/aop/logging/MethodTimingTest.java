@@ -0,0 +1,60 @@
+package de.apnmt.payment.aop.logging;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodTimingTest {
+
+    @Test
+    void percentilesAreBucketUpperBounds() {
+        MethodTiming timing = new MethodTiming();
+        for (int i = 0; i < 99; i++) {
+            timing.record(1_000);
+        }
+        timing.record(1_000_000);
+
+        assertThat(timing.count()).isEqualTo(100);
+        assertThat(timing.maxNanos()).isEqualTo(1_000_000);
+        assertThat(timing.totalNanos()).isEqualTo(99 * 1_000 + 1_000_000);
+        // 1000 has 10 significant bits, the bucket ends at 1023
+        assertThat(timing.percentileNanos(0.5)).isEqualTo(1_023);
+        assertThat(timing.percentileNanos(0.99)).isEqualTo(1_023);
+        assertThat(timing.percentileNanos(0.999)).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void emptyAndEdgeDurations() {
+        MethodTiming timing = new MethodTiming();
+        assertThat(timing.percentileNanos(0.99)).isZero();
+
+        timing.record(-5);
+        timing.record(0);
+        timing.record(Long.MAX_VALUE);
+        assertThat(timing.count()).isEqualTo(3);
+        assertThat(timing.percentileNanos(0.5)).isZero();
+        assertThat(timing.percentileNanos(1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void concurrentRecording() throws InterruptedException {
+        MethodTiming timing = new MethodTiming();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    timing.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(timing.count()).isEqualTo(40_000);
+        assertThat(timing.totalNanos()).isEqualTo(4L * 10_000 * 10_001 / 2);
+        assertThat(timing.maxNanos()).isEqualTo(10_000);
+    }
+}
@@ -0,0 +1,32 @@
+package de.apnmt.payment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withUserConfiguration(VirtualThreadConfiguration.class)
+        .withBean(ApplicationProperties.class, ApplicationProperties::new)
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void isInactiveByDefault() {
+        this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadConfiguration.class));
+    }
+
+    @Test
+    void isActiveWhenEnabledOnJvmsSupportingVirtualThreads() {
+        this.contextRunner.withPropertyValues("application.virtual-threads.enabled=true").run(context -> {
+            if (VirtualThreadSupport.isSupported()) {
+                assertThat(context).hasSingleBean(VirtualThreadConfiguration.class);
+                assertThat(context).hasBean("taskExecutor");
+            } else {
+                assertThat(context).doesNotHaveBean(VirtualThreadConfiguration.class);
+            }
+        });
+    }
+}
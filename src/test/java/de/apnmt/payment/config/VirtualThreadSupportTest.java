@@ -0,0 +1,56 @@
+package de.apnmt.payment.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadSupportTest {
+
+    @Test
+    void isSupportedFromJava21On() {
+        assertThat(VirtualThreadSupport.isSupported()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    void isDisabledByDefault() {
+        assertThat(VirtualThreadSupport.isEnabled(new ApplicationProperties())).isFalse();
+    }
+
+    @Test
+    void isDisabledOnJvmsWithoutVirtualThreads() {
+        assumeFalse(VirtualThreadSupport.isSupported());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getVirtualThreads().setEnabled(true);
+
+        assertThat(VirtualThreadSupport.isEnabled(applicationProperties)).isFalse();
+        assertThatThrownBy(() -> VirtualThreadSupport.threadFactory("test-")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> VirtualThreadSupport.newThreadPerTaskExecutor("test-")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void createsVirtualThreadsOnJvmsSupportingThem() throws Exception {
+        assumeTrue(VirtualThreadSupport.isSupported());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getVirtualThreads().setEnabled(true);
+        assertThat(VirtualThreadSupport.isEnabled(applicationProperties)).isTrue();
+
+        ThreadFactory threadFactory = VirtualThreadSupport.threadFactory("test-");
+        Thread thread = threadFactory.newThread(() -> {
+        });
+        assertThat(thread.getName()).isEqualTo("test-0");
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+
+        ExecutorService executor = VirtualThreadSupport.newThreadPerTaskExecutor("test-");
+        try {
+            Thread worker = executor.submit(Thread::currentThread).get();
+            assertThat(Thread.class.getMethod("isVirtual").invoke(worker)).isEqualTo(true);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
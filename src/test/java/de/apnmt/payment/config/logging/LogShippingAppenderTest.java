@@ -0,0 +1,166 @@
+package de.apnmt.payment.config.logging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogShippingAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final Logger logger = this.context.getLogger(LogShippingAppenderTest.class);
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch requested = new CountDownLatch(1);
+
+    private volatile CountDownLatch released = new CountDownLatch(0);
+
+    private HttpServer server;
+
+    private LogShippingAppender appender;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        this.released.countDown();
+        if (this.appender != null) {
+            this.appender.stop();
+        }
+        this.server.stop(0);
+    }
+
+    @Test
+    void shipsGzipBatches() throws InterruptedException {
+        this.appender = this.appender(1024, 1024, 0.8);
+        this.appender.doAppend(this.event(Level.INFO, "first"));
+        this.appender.doAppend(this.event(Level.WARN, "second"));
+        this.appender.doAppend(this.event(Level.ERROR, "third"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.appender.shipped() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(this.appender.shipped()).isEqualTo(3);
+        assertThat(String.join("", this.received)).isEqualTo("INFO first\nWARN second\nERROR third\n");
+        assertThat(this.appender.bufferedEvents()).isZero();
+    }
+
+    @Test
+    void dropsDiscardableEventsBeyondThreshold() throws InterruptedException {
+        this.released = new CountDownLatch(1);
+        // every event is a batch of its own, the first one blocks the shipper
+        this.appender = this.appender(100, 1, 0.5);
+        this.appender.doAppend(this.event(Level.INFO, "blocked"));
+        assertThat(this.requested.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 10 bytes per event: INFO fills the buffer up to 50 bytes, WARN up to 100 bytes
+        for (int i = 0; i < 6; i++) {
+            this.appender.doAppend(this.event(Level.INFO, "aaaa"));
+        }
+        for (int i = 0; i < 6; i++) {
+            this.appender.doAppend(this.event(Level.WARN, "aaaa"));
+        }
+
+        assertThat(this.appender.bufferedBytes()).isEqualTo(100);
+        assertThat(this.appender.dropped().get("INFO").sum()).isEqualTo(1);
+        assertThat(this.appender.dropped().get("WARN").sum()).isEqualTo(1);
+        assertThat(this.appender.dropped().get("ERROR").sum()).isZero();
+    }
+
+    @Test
+    void restartDoesNotResumeTheStoppedShipper() throws InterruptedException {
+        this.released = new CountDownLatch(1);
+        this.appender = this.appender(1024, 1, 0.8);
+        this.appender.doAppend(this.event(Level.INFO, "blocked"));
+        assertThat(this.requested.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // the shipper does not finish its request within the stop timeout
+        this.appender.stop();
+        this.appender.start();
+        this.released.countDown();
+        this.appender.doAppend(this.event(Level.INFO, "restarted"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.appender.shipped() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(this.received).containsExactlyInAnyOrder("INFO blocked\n", "INFO restarted\n");
+
+        this.appender.stop();
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (shipperThreads() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(shipperThreads()).isZero();
+    }
+
+    private static long shipperThreads() {
+        return Thread.getAllStackTraces().keySet().stream().filter(thread -> "log-shipper".equals(thread.getName()) && thread.isAlive()).count();
+    }
+
+    private LogShippingAppender appender(long bufferBytes, long batchBytes, double discardThreshold) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(this.context);
+        encoder.setPattern("%level %msg%n");
+        encoder.start();
+
+        LogShippingAppender appender = new LogShippingAppender();
+        appender.setContext(this.context);
+        appender.setEncoder(encoder);
+        appender.setUrl("http://localhost:" + this.server.getAddress().getPort() + "/");
+        appender.setBufferBytes(bufferBytes);
+        appender.setBatchBytes(batchBytes);
+        appender.setLingerMs(20);
+        appender.setDiscardLevel(Level.INFO);
+        appender.setDiscardThreshold(discardThreshold);
+        appender.setReadTimeoutMs(10000);
+        appender.start();
+        return appender;
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.class.getName(), this.logger, level, message, null, null);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            this.requested.countDown();
+            this.released.await(10, TimeUnit.SECONDS);
+            assertThat(exchange.getRequestHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+            try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                this.received.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
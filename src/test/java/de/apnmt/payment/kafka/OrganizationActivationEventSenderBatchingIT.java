@@ -0,0 +1,113 @@
+package de.apnmt.payment.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.apnmt.common.ApnmtTestUtil;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.k8s.common.test.AbstractEventSenderIT;
+import de.apnmt.payment.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestPropertySource(properties = {
+    "application.kafka.batching.enabled=true",
+    "application.kafka.batching.batch-size=3"
+})
+public class OrganizationActivationEventSenderBatchingIT extends AbstractEventSenderIT {
+
+    private static final int EVENTS = 7;
+
+    @Autowired
+    private OrganizationActivationEventSender organizationActivationEventSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getTopic() {
+        return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+    }
+
+    @Test
+    public void organizationActivationEventSenderBatchingTest() throws InterruptedException, JsonProcessingException {
+        ApnmtEvent<OrganizationActivationEventDTO> event = ApnmtTestUtil.createOrganizationActivationEvent();
+        this.organizationActivationEventSender.send(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, event);
+
+        ConsumerRecord<String, Object> message = this.records.poll(5, TimeUnit.SECONDS);
+        assertThat(message).isNotNull();
+        assertThat(message.key()).isEqualTo(String.valueOf(event.getValue().getOrganizationId()));
+
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+        assertThat(eventResult).isEqualTo(event);
+    }
+
+    @Test
+    public void organizationActivationEventSenderBatchingAsyncTest() throws InterruptedException, ExecutionException, TimeoutException,
+        JsonProcessingException {
+        List<ApnmtEvent<OrganizationActivationEventDTO>> events = new ArrayList<>();
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            ApnmtEvent<OrganizationActivationEventDTO> event = ApnmtTestUtil.createOrganizationActivationEvent();
+            events.add(event);
+            futures.add(this.organizationActivationEventSender.sendAsync(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, event));
+        }
+
+        for (CompletableFuture<SendResult<String, Object>> future : futures) {
+            SendResult<String, Object> result = future.get(5, TimeUnit.SECONDS);
+            assertThat(result.getRecordMetadata()).isNotNull();
+            assertThat(result.getRecordMetadata().hasOffset()).isTrue();
+        }
+        assertThat(this.meterRegistry.get("payment.kafka.send.queue").gauge().value()).isZero();
+        assertThat(this.meterRegistry.get("payment.kafka.ack").tag("topic", TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC)
+            .tag("result", "success").timer().count()).isGreaterThanOrEqualTo(EVENTS);
+
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        for (ApnmtEvent<OrganizationActivationEventDTO> event : events) {
+            ConsumerRecord<String, Object> message = this.records.poll(5, TimeUnit.SECONDS);
+            assertThat(message).isNotNull();
+            assertThat(message.key()).isEqualTo(String.valueOf(event.getValue().getOrganizationId()));
+            assertThat(this.objectMapper.readValue(message.value().toString(), eventType)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    public void organizationActivationEventSenderBatchingSendAllTest() throws InterruptedException, ExecutionException, TimeoutException {
+        List<ApnmtEvent<OrganizationActivationEventDTO>> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(ApnmtTestUtil.createOrganizationActivationEvent());
+        }
+
+        this.organizationActivationEventSender.sendAll(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, events).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < EVENTS; i++) {
+            assertThat(this.records.poll(5, TimeUnit.SECONDS)).isNotNull();
+        }
+    }
+
+}
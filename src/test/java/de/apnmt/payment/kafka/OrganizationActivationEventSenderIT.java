@@ -1,6 +1,8 @@
 package de.apnmt.payment.kafka;
 
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -10,11 +12,13 @@ import de.apnmt.common.event.ApnmtEvent;
 import de.apnmt.common.event.value.OrganizationActivationEventDTO;
 import de.apnmt.k8s.common.test.AbstractEventSenderIT;
 import de.apnmt.payment.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.annotation.DirtiesContext;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +33,9 @@ public class OrganizationActivationEventSenderIT extends AbstractEventSenderIT {
     @Autowired
     private OrganizationActivationEventSender organizationActivationEventSender;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public String getTopic() {
         return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
@@ -49,4 +56,18 @@ public class OrganizationActivationEventSenderIT extends AbstractEventSenderIT {
         assertThat(eventResult).isEqualTo(event);
     }
 
+    @Test
+    public void organizationActivationEventSenderAsyncTest() throws InterruptedException, ExecutionException, TimeoutException {
+        ApnmtEvent<OrganizationActivationEventDTO> event = ApnmtTestUtil.createOrganizationActivationEvent();
+        SendResult<String, Object> result = this.organizationActivationEventSender.sendAsync(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, event)
+            .get(5, TimeUnit.SECONDS);
+        assertThat(result.getRecordMetadata()).isNotNull();
+        assertThat(this.meterRegistry.get("payment.kafka.ack").tag("topic", TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC)
+            .tag("result", "success").timer().count()).isPositive();
+
+        ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+        assertThat(message).isNotNull();
+        assertThat(message.key()).isEqualTo(String.valueOf(event.getValue().getOrganizationId()));
+    }
+
 }
@@ -0,0 +1,104 @@
+package de.apnmt.payment.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import de.apnmt.common.ApnmtTestUtil;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrganizationActivationEventSenderTest {
+
+    private static final String TOPIC = TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ProducerFactory<String, Object> producerFactory = mock(ProducerFactory.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<PartitionStrategy> partitionStrategyProvider = mock(ObjectProvider.class);
+
+    private final List<Integer> partitionCounts = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        when(this.kafkaTemplate.getProducerFactory()).thenReturn(this.producerFactory);
+        when(this.kafkaTemplate.send(anyString(), any(), any(), any())).thenAnswer(invocation -> new SettableListenableFuture<SendResult<String, Object>>());
+    }
+
+    @Test
+    void leavesThePartitionToTheProducerByDefault() {
+        when(this.producerFactory.getConfigurationProperties()).thenReturn(Map.of());
+        OrganizationActivationEventSender sender = this.sender();
+
+        sender.send(TOPIC, ApnmtTestUtil.createOrganizationActivationEvent());
+
+        verify(this.kafkaTemplate).send(eq(TOPIC), isNull(), anyString(), any());
+    }
+
+    @Test
+    void readsThePartitionCountAgainOnceItIsOlderThanTheProducerMetadata() {
+        when(this.producerFactory.getConfigurationProperties()).thenReturn(Map.of(ProducerConfig.METADATA_MAX_AGE_CONFIG, "0"));
+        when(this.partitionStrategyProvider.getIfAvailable()).thenReturn(this.recordingStrategy());
+        when(this.kafkaTemplate.partitionsFor(TOPIC)).thenReturn(partitions(2), partitions(4));
+        OrganizationActivationEventSender sender = this.sender();
+
+        sender.send(TOPIC, ApnmtTestUtil.createOrganizationActivationEvent());
+        sender.send(TOPIC, ApnmtTestUtil.createOrganizationActivationEvent());
+
+        assertThat(this.partitionCounts).containsExactly(2, 4);
+    }
+
+    @Test
+    void keepsThePartitionCountWhileTheProducerMetadataIsCurrent() {
+        when(this.producerFactory.getConfigurationProperties()).thenReturn(Map.of());
+        when(this.partitionStrategyProvider.getIfAvailable()).thenReturn(this.recordingStrategy());
+        when(this.kafkaTemplate.partitionsFor(TOPIC)).thenReturn(partitions(2), partitions(4));
+        OrganizationActivationEventSender sender = this.sender();
+
+        sender.send(TOPIC, ApnmtTestUtil.createOrganizationActivationEvent());
+        sender.send(TOPIC, ApnmtTestUtil.createOrganizationActivationEvent());
+
+        assertThat(this.partitionCounts).containsExactly(2, 2);
+    }
+
+    private OrganizationActivationEventSender sender() {
+        return new OrganizationActivationEventSender(this.kafkaTemplate, new ApplicationProperties(), new SimpleMeterRegistry(), this.partitionStrategyProvider);
+    }
+
+    private PartitionStrategy recordingStrategy() {
+        return (topic, key, numPartitions) -> {
+            this.partitionCounts.add(numPartitions);
+            return 0;
+        };
+    }
+
+    private static List<PartitionInfo> partitions(int count) {
+        List<PartitionInfo> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, null, null, null));
+        }
+        return partitions;
+    }
+}
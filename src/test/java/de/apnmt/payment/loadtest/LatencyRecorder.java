@@ -0,0 +1,80 @@
+package de.apnmt.payment.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the latencies and outcomes of one workload of the load test.
+ */
+class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+
+    private Histogram histogram;
+
+    private long elapsedNanos;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    void record(long latencyNanos, String outcome) {
+        this.recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        this.outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        this.histogram = this.recorder.getIntervalHistogram();
+    }
+
+    long count() {
+        return this.histogram.getTotalCount();
+    }
+
+    double throughput() {
+        return this.elapsedNanos == 0 ? 0 : this.count() / (this.elapsedNanos / 1e9);
+    }
+
+    /**
+     * @return the summary of the workload, latencies in milliseconds.
+     */
+    Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("workload", this.name);
+        summary.put("count", this.count());
+        summary.put("throughputPerSecond", round(this.throughput()));
+        summary.put("p50Ms", millis(this.histogram.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(this.histogram.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(this.histogram.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(this.histogram.getMaxValue()));
+        Map<String, Long> outcomeCounts = new LinkedHashMap<>();
+        this.outcomes.forEach((outcome, count) -> outcomeCounts.put(outcome, count.get()));
+        summary.put("outcomes", outcomeCounts);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,249 @@
+package de.apnmt.payment.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.JsonObject;
+import com.stripe.Stripe;
+import com.stripe.model.Event;
+import com.stripe.model.EventData;
+import com.stripe.model.Invoice;
+import com.stripe.net.ApiResource;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.PaymentserviceApp;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.service.mapper.SubscriptionMapper;
+import de.apnmt.payment.service.SubscriptionExpirationSweepService;
+import de.apnmt.payment.web.rest.TestUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of checkouts, webhook storms and expiration sweeps against a {@link StripeApiStub}.
+ * <p>
+ * Excluded from the regular build, run it with {@code ./mvnw -Pload-test test}. The workloads are tuned through
+ * system properties prefixed with {@code load.}, the summary is logged and written to
+ * {@code target/load-test-report.json}. Run it against PostgreSQL by overriding {@code spring.datasource.*}.
+ */
+@Tag("load")
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@SpringBootTest(classes = PaymentserviceApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PaymentLoadTest extends CommonIT {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentLoadTest.class);
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+
+    private static final int WEBHOOK_SUBSCRIPTIONS = Integer.getInteger("load.webhook-subscriptions", 1000);
+
+    private static final int EXPIRED_SUBSCRIPTIONS = Integer.getInteger("load.expired-subscriptions", 10000);
+
+    private static final int SWEEPS = Integer.getInteger("load.sweeps", 5);
+
+    private static final String REPORT = System.getProperty("load.report", "target/load-test-report.json");
+
+    private static StripeApiStub stripe;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SubscriptionMapper subscriptionMapper;
+
+    @Autowired
+    private SubscriptionExpirationSweepService sweepService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeAll
+    static void startStripe() throws Exception {
+        stripe = new StripeApiStub(Long.getLong("load.stripe.latency-ms", 80), Double.parseDouble(System.getProperty("load.stripe.error-rate", "0.01")),
+            TestUtil.DEFAULT_PRICE_ID);
+        Stripe.overrideApiBase(stripe.baseUrl());
+    }
+
+    @AfterAll
+    static void stopStripe() {
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        stripe.close();
+    }
+
+    @Test
+    void measureCapacity() throws Exception {
+        Customer customer = TestUtil.createCustomer();
+        customer.setOrganizationId(1L);
+        this.customerRepository.save(customer);
+        Product product = this.productRepository.save(TestUtil.createProduct());
+        Price price = TestUtil.createPrice();
+        price.setProduct(product);
+        this.priceRepository.save(price);
+
+        List<LatencyRecorder> results = new ArrayList<>();
+        results.add(this.checkouts(customer, price));
+        results.add(this.webhookStorm(customer));
+        results.add(this.expirationSweeps());
+
+        List<Object> summaries = new ArrayList<>();
+        for (LatencyRecorder result : results) {
+            summaries.add(result.summary());
+            log.info("Load test {}", result.summary());
+        }
+        log.info("Stripe stub answered {} requests, {} failed on purpose", stripe.requests(), stripe.failures());
+        Path report = Paths.get(REPORT);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.write(report, this.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(summaries));
+
+        results.forEach(result -> assertThat(result.count()).as(result.getName()).isPositive());
+    }
+
+    private LatencyRecorder checkouts(Customer customer, Price price) throws Exception {
+        Subscription subscription = new Subscription();
+        subscription.setCustomer(customer);
+        subscription.addSubscriptionItem(TestUtil.createSubscriptionItem(price));
+        byte[] body = this.objectMapper.writeValueAsBytes(this.subscriptionMapper.toDto(subscription));
+        return this.run("checkout", () -> this.post("/api/subscriptions/checkout", body, "application/json", "X-paymentMethod", "pm_load"));
+    }
+
+    private LatencyRecorder webhookStorm(Customer customer) throws Exception {
+        List<String> ids = new ArrayList<>(WEBHOOK_SUBSCRIPTIONS);
+        List<Subscription> subscriptions = new ArrayList<>(WEBHOOK_SUBSCRIPTIONS);
+        for (int i = 0; i < WEBHOOK_SUBSCRIPTIONS; i++) {
+            Subscription subscription = new Subscription().expirationDate(LocalDateTime.now().plusHours(1));
+            subscription.setId("sub_webhook_" + i);
+            subscription.setCustomer(customer);
+            subscriptions.add(subscription);
+            ids.add(subscription.getId());
+        }
+        this.subscriptionRepository.saveAll(subscriptions);
+        return this.run("webhook", () -> {
+            long n = this.sequence.incrementAndGet();
+            byte[] event = invoicePaidEvent("evt_load_" + n, ids.get((int) (n % ids.size()))).getBytes(StandardCharsets.UTF_8);
+            return this.post("/api/stripe/events", event, "text/plain", null, null);
+        });
+    }
+
+    private LatencyRecorder expirationSweeps() {
+        List<Customer> customers = new ArrayList<>(EXPIRED_SUBSCRIPTIONS);
+        List<Subscription> subscriptions = new ArrayList<>(EXPIRED_SUBSCRIPTIONS);
+        for (int i = 0; i < EXPIRED_SUBSCRIPTIONS; i++) {
+            Customer customer = new Customer();
+            customer.setId("cus_expired_" + i);
+            customer.setOrganizationId(1000L + i);
+            customers.add(customer);
+            Subscription subscription = new Subscription().expirationDate(LocalDateTime.now().minusDays(1));
+            subscription.setId("sub_expired_" + i);
+            subscription.setCustomer(customer);
+            subscriptions.add(subscription);
+        }
+        this.customerRepository.saveAll(customers);
+        this.subscriptionRepository.saveAll(subscriptions);
+        LatencyRecorder recorder = new LatencyRecorder("expiration-sweep");
+        long start = System.nanoTime();
+        long swept = 0;
+        for (int i = 0; i < SWEEPS; i++) {
+            long sweepStart = System.nanoTime();
+            swept += this.sweepService.sweep(LocalDateTime.now());
+            recorder.record(System.nanoTime() - sweepStart, "success");
+        }
+        recorder.finish(System.nanoTime() - start);
+        log.info("Swept {} subscriptions in {} sweeps", swept, SWEEPS);
+        return recorder;
+    }
+
+    /**
+     * Runs the operation from {@link #CONCURRENCY} threads for {@link #DURATION}.
+     */
+    private LatencyRecorder run(String name, Operation operation) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(name);
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        long end = start + DURATION.toNanos();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    long operationStart = System.nanoTime();
+                    String outcome;
+                    try {
+                        outcome = String.valueOf(operation.run());
+                    } catch (Exception e) {
+                        outcome = e.getClass().getSimpleName();
+                    }
+                    recorder.record(System.nanoTime() - operationStart, outcome);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(DURATION.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        recorder.finish(System.nanoTime() - start);
+        return recorder;
+    }
+
+    private int post(String path, byte[] body, String contentType, String header, String value) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", contentType)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (header != null) {
+            request.header(header, value);
+        }
+        return this.httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String invoicePaidEvent(String eventId, String subscriptionId) {
+        Invoice invoice = new Invoice();
+        invoice.setObject("invoice");
+        invoice.setSubscription(subscriptionId);
+        EventData eventData = new EventData();
+        eventData.setObject(ApiResource.GSON.fromJson(invoice.toJson(), JsonObject.class));
+        Event event = new Event();
+        event.setId(eventId);
+        event.setApiVersion("2020-08-27");
+        event.setType("invoice.payment_succeeded");
+        event.setObject("event");
+        event.setData(eventData);
+        return event.toJson();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int run() throws Exception;
+    }
+}
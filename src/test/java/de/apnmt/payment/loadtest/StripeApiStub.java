@@ -0,0 +1,203 @@
+package de.apnmt.payment.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Stripe API.
+ * <p>
+ * Answers the calls of the checkout and webhook flows with plausible objects after an exponentially distributed
+ * latency, and fails a configurable share of the calls the way Stripe does, with rate limit and API errors.
+ */
+class StripeApiStub implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final long meanLatencyMs;
+
+    private final double errorRate;
+
+    private final String defaultPriceId;
+
+    StripeApiStub(long meanLatencyMs, double errorRate, String defaultPriceId) throws IOException {
+        this.meanLatencyMs = meanLatencyMs;
+        this.errorRate = errorRate;
+        this.defaultPriceId = defaultPriceId;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/v1/", this::handle);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + this.server.getAddress().getPort();
+    }
+
+    long requests() {
+        return this.requests.get();
+    }
+
+    long failures() {
+        return this.failures.get();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            this.requests.incrementAndGet();
+            Map<String, String> form = parseForm(exchange.getRequestBody());
+            this.simulateLatency();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < this.errorRate) {
+                this.failures.incrementAndGet();
+                boolean rateLimited = random.nextBoolean();
+                this.respond(exchange, rateLimited ? 429 : 500, Map.of("error", Map.of(
+                    "type", rateLimited ? "invalid_request_error" : "api_error",
+                    "code", rateLimited ? "rate_limit" : "api_error",
+                    "message", rateLimited ? "Too many requests hit the API too quickly." : "An unknown error occurred."
+                )));
+                return;
+            }
+            // /v1/{resource}[/{id}[/{action}]]
+            String[] path = exchange.getRequestURI().getPath().substring("/v1/".length()).split("/");
+            String resource = path[0];
+            String id = path.length > 1 ? path[1] : null;
+            this.respond(exchange, 200, this.objectOf(resource, id, form));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void simulateLatency() {
+        if (this.meanLatencyMs <= 0) {
+            return;
+        }
+        double latency = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * this.meanLatencyMs;
+        try {
+            Thread.sleep((long) latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> objectOf(String resource, String id, Map<String, String> form) {
+        switch (resource) {
+            case "customers":
+                return this.object(id, "cus_", "customer");
+            case "payment_methods":
+                Map<String, Object> paymentMethod = this.object(id, "pm_", "payment_method");
+                paymentMethod.put("type", "card");
+                paymentMethod.put("customer", form.get("customer"));
+                return paymentMethod;
+            case "subscriptions":
+                return this.subscription(id, form);
+            case "prices":
+                return this.object(id, "price_", "price");
+            case "products":
+                return this.object(id, "prod_", "product");
+            default:
+                return this.object(id, "obj_", resource.endsWith("s") ? resource.substring(0, resource.length() - 1) : resource);
+        }
+    }
+
+    private Map<String, Object> subscription(String id, Map<String, String> form) {
+        Map<String, Object> subscription = this.object(id, "sub_", "subscription");
+        long now = Instant.now().getEpochSecond();
+        subscription.put("status", "active");
+        subscription.put("customer", form.get("customer"));
+        subscription.put("created", now);
+        subscription.put("current_period_start", now);
+        subscription.put("current_period_end", Instant.now().plus(30, ChronoUnit.DAYS).getEpochSecond());
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; form.containsKey("items[" + i + "][price]"); i++) {
+            items.add(this.subscriptionItem(form.get("items[" + i + "][price]"), form.getOrDefault("items[" + i + "][quantity]", "1")));
+        }
+        if (items.isEmpty()) {
+            items.add(this.subscriptionItem(this.defaultPriceId, "1"));
+        }
+        Map<String, Object> list = new LinkedHashMap<>();
+        list.put("object", "list");
+        list.put("data", items);
+        list.put("has_more", false);
+        subscription.put("items", list);
+        return subscription;
+    }
+
+    private Map<String, Object> subscriptionItem(String priceId, String quantity) {
+        Map<String, Object> item = this.object(null, "si_", "subscription_item");
+        item.put("quantity", Long.parseLong(quantity));
+        Map<String, Object> price = new LinkedHashMap<>();
+        price.put("id", priceId);
+        price.put("object", "price");
+        item.put("price", price);
+        return item;
+    }
+
+    private Map<String, Object> object(String id, String prefix, String type) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("id", id != null ? id : prefix + "stub" + this.ids.incrementAndGet());
+        object.put("object", type);
+        object.put("livemode", false);
+        return object;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = this.objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Request-Id", "req_stub" + this.ids.incrementAndGet());
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static Map<String, String> parseForm(InputStream body) throws IOException {
+        String content = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = new HashMap<>();
+        if (content.isEmpty()) {
+            return form;
+        }
+        for (String pair : content.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            form.put(key, value);
+        }
+        return form;
+    }
+}
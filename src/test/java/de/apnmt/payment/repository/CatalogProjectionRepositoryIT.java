@@ -0,0 +1,76 @@
+package de.apnmt.payment.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.StatementCounter;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.service.dto.PriceDTO;
+import de.apnmt.payment.common.service.mapper.PriceMapper;
+import de.apnmt.payment.service.dto.CatalogProductDTO;
+import de.apnmt.payment.web.rest.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the {@link CatalogProjectionRepository}.
+ */
+@IntegrationTest
+class CatalogProjectionRepositoryIT extends CommonIT {
+
+    @Autowired
+    private CatalogProjectionRepository catalogProjectionRepository;
+
+    @Autowired
+    private PriceMapper priceMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Price price;
+
+    @BeforeEach
+    public void initTest() {
+        this.transactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Product product = this.productRepository.save(TestUtil.createProduct());
+        this.price = TestUtil.createPrice();
+        this.price.setProduct(product);
+        this.price = this.priceRepository.save(this.price);
+    }
+
+    @Test
+    void findCatalogWithoutLoadingEntities() {
+        try (StatementCounter counter = StatementCounter.start(this.entityManagerFactory)) {
+            List<CatalogProductDTO> products = this.transactionTemplate.execute(status -> this.catalogProjectionRepository.findAllProducts());
+            Map<String, List<PriceDTO>> prices = this.transactionTemplate.execute(status -> this.catalogProjectionRepository.findAllPricesByProduct());
+
+            assertThat(products).hasSize(1);
+            assertThat(products.get(0).getId()).isEqualTo(TestUtil.DEFAULT_PRODUCT_ID);
+            assertThat(products.get(0).getName()).isEqualTo("product");
+            assertThat(prices).containsOnlyKeys(TestUtil.DEFAULT_PRODUCT_ID);
+            PriceDTO expected = this.priceMapper.toDto(this.price);
+            PriceDTO projected = prices.get(TestUtil.DEFAULT_PRODUCT_ID).get(0);
+            assertThat(projected.getId()).isEqualTo(expected.getId());
+            assertThat(projected.getNickname()).isEqualTo(expected.getNickname());
+            assertThat(projected.getAmount()).isEqualTo(expected.getAmount());
+            assertThat(projected.getCurrency()).isEqualTo(expected.getCurrency());
+            assertThat(projected.getInterval()).isEqualTo(expected.getInterval());
+            assertThat(counter.count()).isEqualTo(2);
+            assertThat(counter.entityLoadCount()).isZero();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.apnmt.payment.service;
+
+import javax.persistence.EntityManagerFactory;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.config.CacheConfiguration;
+import de.apnmt.payment.web.rest.TestUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedKafka(ports = {58255}, topics = {"payment-catalog-invalidation"})
+@IntegrationTest
+@DirtiesContext
+@TestPropertySource(properties = {"application.catalog-cache.enabled=true"})
+class CatalogCacheInvalidationServiceIT extends CommonIT {
+
+    @Autowired
+    private CatalogCacheInvalidationService invalidationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void evictChangesOfOtherReplicasTest() {
+        Product product = TestUtil.createProduct();
+        this.productRepository.saveAndFlush(product);
+        Price price = TestUtil.createPrice();
+        price.setProduct(product);
+        this.priceRepository.saveAndFlush(price);
+
+        assertThat(this.productRepository.findById(product.getId())).isPresent();
+        assertThat(this.priceRepository.findById(price.getId())).isPresent();
+        Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Product.class, product.getId())).isTrue();
+        assertThat(cache.containsEntity(Price.class, price.getId())).isTrue();
+
+        this.invalidationService.onInvalidation(this.invalidation(CatalogCacheInvalidationService.PRODUCT_KEY + product.getId()));
+        this.invalidationService.onInvalidation(this.invalidation(CatalogCacheInvalidationService.PRICE_KEY + price.getId()));
+        this.invalidationService.onInvalidation(this.invalidation(CatalogCacheInvalidationService.PRODUCT_PRICES_KEY + product.getId()));
+
+        assertThat(cache.containsEntity(Product.class, product.getId())).isFalse();
+        assertThat(cache.containsEntity(Price.class, price.getId())).isFalse();
+        assertThat(cache.containsCollection(CacheConfiguration.PRODUCT_PRICES_ROLE, product.getId())).isFalse();
+    }
+
+    private ConsumerRecord<String, String> invalidation(String key) {
+        return new ConsumerRecord<>("payment-catalog-invalidation", 0, 0L, key, "other-replica");
+    }
+}
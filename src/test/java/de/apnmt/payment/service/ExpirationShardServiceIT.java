@@ -0,0 +1,127 @@
+package de.apnmt.payment.service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.domain.ExpirationShardLease;
+import de.apnmt.payment.repository.ExpirationShardLeaseRepository;
+import de.apnmt.payment.repository.ExpirationSweepMemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DirtiesContext
+@TestPropertySource(properties = {
+    "application.expiration.sharding.enabled=true",
+    "application.expiration.sharding.shard-count=8",
+    "application.expiration.sharding.instance-id=pod-a",
+    "application.expiration.sharding.heartbeat-interval-ms=3600000"
+})
+class ExpirationShardServiceIT {
+
+    private static final int SHARD_COUNT = 8;
+
+    @Autowired
+    private ExpirationShardService expirationShardService;
+
+    @Autowired
+    private ExpirationShardLeaseRepository leaseRepository;
+
+    @Autowired
+    private ExpirationSweepMemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExpirationShardService otherInstance;
+
+    @BeforeEach
+    public void initTest() {
+        this.memberRepository.deleteAll();
+        this.leaseRepository.deleteAll();
+        ApplicationProperties otherProperties = new ApplicationProperties();
+        otherProperties.getExpiration().getSharding().setEnabled(true);
+        otherProperties.getExpiration().getSharding().setShardCount(SHARD_COUNT);
+        otherProperties.getExpiration().getSharding().setInstanceId("pod-b");
+        this.otherInstance = new ExpirationShardService(this.leaseRepository, this.memberRepository, this.transactionManager, otherProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.otherInstance.leave();
+    }
+
+    @Test
+    void singleInstanceOwnsAllShards() {
+        Set<Integer> shards = this.expirationShardService.withAssignment(ShardAssignment::getShards);
+        assertThat(shards).hasSize(SHARD_COUNT);
+    }
+
+    @Test
+    void shardsRedistributeWhenInstancesJoinAndLeave() {
+        this.expirationShardService.heartbeat();
+        assertThat(this.expirationShardService.withAssignment(ShardAssignment::getShards)).hasSize(SHARD_COUNT);
+
+        // the second instance registers, but all leases are still held by the first one
+        this.otherInstance.heartbeat();
+        assertThat(this.otherInstance.withAssignment(ShardAssignment::getShards)).isEmpty();
+
+        // the first instance gives up the shards above its fair share, the second claims them
+        this.expirationShardService.heartbeat();
+        this.otherInstance.heartbeat();
+        Set<Integer> first = new HashSet<>(this.expirationShardService.withAssignment(ShardAssignment::getShards));
+        Set<Integer> second = new HashSet<>(this.otherInstance.withAssignment(ShardAssignment::getShards));
+        assertThat(first).hasSize(SHARD_COUNT / 2);
+        assertThat(second).hasSize(SHARD_COUNT / 2);
+        assertThat(first).doesNotContainAnyElementsOf(second);
+
+        this.otherInstance.leave();
+        this.expirationShardService.heartbeat();
+        assertThat(this.expirationShardService.withAssignment(ShardAssignment::getShards)).hasSize(SHARD_COUNT);
+    }
+
+    @Test
+    void heartbeatDoesNotWaitForRunningWork() {
+        this.expirationShardService.heartbeat();
+        this.otherInstance.heartbeat();
+
+        Set<Integer> shards = this.expirationShardService.withAssignment(assignment -> {
+            // a heartbeat during a sweep renews the leases without giving up the shards being swept
+            this.expirationShardService.heartbeat();
+            return this.expirationShardService.withAssignment(ShardAssignment::getShards);
+        });
+        assertThat(shards).hasSize(SHARD_COUNT);
+
+        this.expirationShardService.heartbeat();
+        assertThat(this.expirationShardService.withAssignment(ShardAssignment::getShards)).hasSize(SHARD_COUNT / 2);
+    }
+
+    @Test
+    void renewDropsShardsTakenOverByAnotherInstance() {
+        this.expirationShardService.heartbeat();
+        ShardAssignment assignment = this.expirationShardService.withAssignment(current -> current);
+        assertThat(assignment.getShards()).hasSize(SHARD_COUNT);
+
+        // the lease of shard 0 expired while a sweep was running and another instance took it over
+        ExpirationShardLease lease = this.leaseRepository.findById(0).get();
+        lease.setOwner("pod-b");
+        lease.setLeaseUntil(Instant.now().plusSeconds(60));
+        this.leaseRepository.saveAndFlush(lease);
+
+        ShardAssignment renewed = this.expirationShardService.renew(assignment);
+        assertThat(renewed.getShards()).hasSize(SHARD_COUNT - 1).doesNotContain(0);
+        assertThat(renewed.ownsAll()).isFalse();
+        assertThat(this.expirationShardService.withAssignment(ShardAssignment::getShards)).isEqualTo(renewed.getShards());
+        assertThat(this.leaseRepository.findById(0).get().getOwner()).isEqualTo("pod-b");
+    }
+
+}
@@ -0,0 +1,74 @@
+package de.apnmt.payment.service;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.apnmt.common.ApnmtTestUtil;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.common.sender.ApnmtEventSender;
+import de.apnmt.k8s.common.test.AbstractEventSenderIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.repository.OutboxEventRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestPropertySource(properties = {"application.outbox.enabled=true", "application.outbox.relay-interval-ms=3600000"})
+class OutboxRelayServiceIT extends AbstractEventSenderIT {
+
+    @Autowired
+    private ApnmtEventSender<OrganizationActivationEventDTO> sender;
+
+    @Autowired
+    private OutboxRelayService outboxRelayService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Override
+    public String getTopic() {
+        return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+    }
+
+    @BeforeEach
+    public void initTest() {
+        this.outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void relayOutboxEventTest() throws Exception {
+        ApnmtEvent<OrganizationActivationEventDTO> event = ApnmtTestUtil.createOrganizationActivationEvent();
+        this.sender.send(TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC, event);
+
+        assertThat(this.outboxEventRepository.count()).isEqualTo(1);
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+        int relayed = this.outboxRelayService.relay();
+        assertThat(relayed).isEqualTo(1);
+        assertThat(this.outboxEventRepository.count()).isZero();
+
+        ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+        assertThat(message).isNotNull();
+        assertThat(message.value()).isNotNull();
+
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+        assertThat(eventResult).isEqualTo(event);
+    }
+
+}
@@ -0,0 +1,126 @@
+package de.apnmt.payment.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.stripe.exception.ApiException;
+import com.stripe.exception.InvalidRequestException;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripeCallGuardTest {
+
+    private static final String OPERATION = "SubscriptionStripeService.getSubscription";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private StripeCallGuard guard;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.callers.shutdownNow();
+        this.guard.shutdown();
+    }
+
+    @Test
+    void opensOnServerErrorsOnly() throws Exception {
+        this.guard = this.guard(10000, 1, 1);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> this.guard.call(OPERATION, StripeCallPriority.CHECKOUT, () -> {
+                throw new InvalidRequestException("No such subscription", "id", null, "resource_missing", 404, null);
+            })).isInstanceOf(InvalidRequestException.class);
+        }
+        assertThat(this.guard.stateOf(OPERATION)).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> this.guard.call(OPERATION, StripeCallPriority.CHECKOUT, () -> {
+                throw new ApiException("Internal error", null, "api_error", 500, null);
+            })).isInstanceOf(ApiException.class);
+        }
+        assertThat(this.guard.stateOf(OPERATION)).isEqualTo(CircuitBreaker.State.OPEN);
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> this.guard.call(OPERATION, StripeCallPriority.CHECKOUT, calls::incrementAndGet))
+            .isInstanceOf(CallNotPermittedException.class);
+        assertThat(calls).hasValue(0);
+        assertThat(this.guard.call("CustomerStripeService.getCustomer", StripeCallPriority.CHECKOUT, () -> "other operation")).isEqualTo("other operation");
+        assertThat(this.meterRegistry.get("resilience4j.circuitbreaker.state").tag("name", OPERATION).tag("state", "open").gauge().value())
+            .isEqualTo(1);
+        assertThat(this.meterRegistry.get("resilience4j.circuitbreaker.not.permitted.calls").tag("name", OPERATION).counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void timesOutSlowCalls() {
+        this.guard = this.guard(50, 1, 1);
+
+        assertThatThrownBy(() -> this.guard.call(OPERATION, StripeCallPriority.CHECKOUT, () -> {
+            Thread.sleep(5000);
+            return null;
+        })).isInstanceOf(TimeoutException.class);
+        assertThat(StripeCallGuard.isUnavailable(new TimeoutException())).isTrue();
+    }
+
+    @Test
+    void awaitsWritesBeyondTheTimeLimit() throws Exception {
+        this.guard = this.guard(50, 1, 1);
+
+        assertThat(this.guard.call("SubscriptionStripeService.createSubscription", StripeCallPriority.CHECKOUT, true, () -> {
+            Thread.sleep(200);
+            return "created";
+        })).isEqualTo("created");
+    }
+
+    @Test
+    void webhooksDoNotQueueBehindCheckouts() throws Exception {
+        this.guard = this.guard(10000, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // one checkout runs, one waits in the queue
+        for (int i = 0; i < 2; i++) {
+            this.callers.submit(() -> this.guard.call(OPERATION, StripeCallPriority.CHECKOUT, () -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            }));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.queueDepth(StripeCallGuard.CHECKOUT_BULKHEAD) < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> this.guard.call(OPERATION, StripeCallPriority.READ, () -> "read"))
+            .isInstanceOf(BulkheadFullException.class);
+        assertThat(this.guard.call(OPERATION, StripeCallPriority.WEBHOOK, () -> "webhook")).isEqualTo("webhook");
+        assertThat(this.guard.stateOf(OPERATION)).isEqualTo(CircuitBreaker.State.CLOSED);
+        release.countDown();
+    }
+
+    private double queueDepth(String bulkhead) {
+        return this.meterRegistry.get("resilience4j.bulkhead.queue.depth").tag("name", bulkhead).gauge().value();
+    }
+
+    private StripeCallGuard guard(long timeoutMs, int maxThreads, int queueCapacity) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Stripe.Resilience resilience = applicationProperties.getStripe().getResilience();
+        resilience.setTimeoutMs(timeoutMs);
+        resilience.getCheckout().setMaxThreads(maxThreads);
+        resilience.getCheckout().setQueueCapacity(queueCapacity);
+        resilience.getCircuitBreaker().setSlidingWindowSize(4);
+        resilience.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        return new StripeCallGuard(applicationProperties, this.meterRegistry);
+    }
+}
@@ -0,0 +1,100 @@
+package de.apnmt.payment.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+import com.stripe.model.Event;
+import com.stripe.model.EventData;
+import com.stripe.model.Invoice;
+import com.stripe.model.Subscription;
+import com.stripe.net.ApiResource;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripeObjectCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StripeObjectCache cache = new StripeObjectCache(new ApplicationProperties(), this.meterRegistry);
+
+    @Test
+    void readThrough() throws Throwable {
+        AtomicInteger loads = new AtomicInteger();
+        StripeObjectCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            return subscription("sub_1");
+        };
+        Object first = this.cache.get(Subscription.class, "sub_1", loader);
+        Object second = this.cache.get(Subscription.class, "sub_1", loader);
+
+        assertThat(((Subscription) second).getId()).isEqualTo("sub_1");
+        assertThat(loads).hasValue(1);
+        assertThat(this.meterRegistry.get("cache.gets").tag("cache", "stripe.subscription").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsCopies() throws Throwable {
+        Subscription loaded = (Subscription) this.cache.get(Subscription.class, "sub_4", () -> subscription("sub_4"));
+        loaded.setStatus("canceled");
+
+        Subscription first = (Subscription) this.cache.get(Subscription.class, "sub_4", () -> subscription("sub_4"));
+        first.setStatus("past_due");
+        Subscription second = (Subscription) this.cache.get(Subscription.class, "sub_4", () -> subscription("sub_4"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getId()).isEqualTo("sub_4");
+        assertThat(second.getStatus()).isNull();
+        assertThat(((Subscription) this.cache.getLastKnown(Subscription.class, "sub_4")).getStatus()).isNull();
+    }
+
+    @Test
+    void invoiceEventEvictsSubscription() throws Throwable {
+        this.cache.get(Subscription.class, "sub_2", () -> subscription("sub_2"));
+
+        Invoice invoice = new Invoice();
+        invoice.setObject("invoice");
+        invoice.setSubscription("sub_2");
+        this.cache.onEvent(event("invoice.payment_succeeded", invoice.toJson()));
+        assertThat(this.cache.getLastKnown(Subscription.class, "sub_2")).isNull();
+
+        AtomicInteger loads = new AtomicInteger();
+        this.cache.get(Subscription.class, "sub_2", () -> {
+            loads.incrementAndGet();
+            return subscription("sub_2");
+        });
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void subscriptionEventRefreshesSubscription() throws Throwable {
+        this.cache.get(Subscription.class, "sub_3", () -> subscription("sub_3"));
+
+        Subscription updated = subscription("sub_3");
+        updated.setStatus("past_due");
+        this.cache.onEvent(event("customer.subscription.updated", updated.toJson()));
+
+        Object cached = this.cache.get(Subscription.class, "sub_3", () -> subscription("sub_3"));
+        // refreshed from the webhook, or evicted and reloaded if the event API version is not the one of the client
+        assertThat(((Subscription) cached).getId()).isEqualTo("sub_3");
+    }
+
+    private static Subscription subscription(String id) {
+        Subscription subscription = new Subscription();
+        subscription.setId(id);
+        subscription.setObject("subscription");
+        return subscription;
+    }
+
+    private static Event event(String type, String objectJson) {
+        Event event = new Event();
+        event.setApiVersion("2020-08-27");
+        event.setType(type);
+        event.setObject("event");
+        EventData eventData = new EventData();
+        eventData.setObject(ApiResource.GSON.fromJson(objectJson, JsonObject.class));
+        event.setData(eventData);
+        return event;
+    }
+}
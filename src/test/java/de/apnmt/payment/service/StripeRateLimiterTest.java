@@ -0,0 +1,67 @@
+package de.apnmt.payment.service;
+
+import com.stripe.exception.RateLimitException;
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripeRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void lowerClassesLeaveTheirReserve() throws Exception {
+        StripeRateLimiter limiter = this.limiter(0.01, 0);
+
+        // bulk leaves half of the 10 tokens, reads 3 of the remaining 5
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(StripeCallPriority.BULK)).isZero();
+        }
+        assertThat(limiter.tryAcquire(StripeCallPriority.BULK)).isPositive();
+        assertThat(limiter.tryAcquire(StripeCallPriority.READ)).isZero();
+        assertThat(limiter.tryAcquire(StripeCallPriority.READ)).isZero();
+        assertThat(limiter.tryAcquire(StripeCallPriority.READ)).isPositive();
+        assertThat(limiter.tryAcquire(StripeCallPriority.CHECKOUT)).isZero();
+        assertThat(limiter.tryAcquire(StripeCallPriority.CHECKOUT)).isZero();
+        assertThat(limiter.tryAcquire(StripeCallPriority.CHECKOUT)).isPositive();
+        assertThat(limiter.tryAcquire(StripeCallPriority.WEBHOOK)).isZero();
+        assertThat(limiter.tryAcquire(StripeCallPriority.WEBHOOK)).isPositive();
+    }
+
+    @Test
+    void rejectsWhenNoTokenInTime() throws Exception {
+        StripeRateLimiter limiter = this.limiter(0.01, 50);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(StripeCallPriority.WEBHOOK);
+        }
+
+        assertThatThrownBy(() -> limiter.acquire(StripeCallPriority.WEBHOOK)).isInstanceOf(RateLimitException.class);
+        assertThat(this.meterRegistry.get("payment.stripe.limiter.rejected").tag("priority", "webhook").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsForRefill() throws Exception {
+        StripeRateLimiter limiter = this.limiter(100, 1000);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(StripeCallPriority.WEBHOOK);
+        }
+
+        long start = System.nanoTime();
+        limiter.acquire(StripeCallPriority.WEBHOOK);
+        assertThat(System.nanoTime() - start).isGreaterThan(5_000_000L);
+    }
+
+    private StripeRateLimiter limiter(double permitsPerSecond, long maxWaitMs) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Stripe.RateLimit rateLimit = applicationProperties.getStripe().getRateLimit();
+        rateLimit.setPermitsPerSecond(permitsPerSecond);
+        rateLimit.setBurst(10);
+        rateLimit.setMaxWaitMs(maxWaitMs);
+        rateLimit.setCheckoutReserve(0.1);
+        rateLimit.setReadReserve(0.3);
+        rateLimit.setBulkReserve(0.5);
+        return new StripeRateLimiter(applicationProperties, this.meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.k8s.common.test.AbstractEventSenderIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.repository.CustomerRepository;
+import de.apnmt.payment.common.repository.SubscriptionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestPropertySource(properties = {"application.expiration.chunk-size=2"})
+class SubscriptionExpirationSweepServiceIT extends AbstractEventSenderIT {
+
+    private static final int EXPIRED_SUBSCRIPTIONS = 5;
+
+    @Autowired
+    private SubscriptionExpirationSweepService sweepService;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public String getTopic() {
+        return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+    }
+
+    @BeforeEach
+    public void initTest() {
+        this.subscriptionRepository.deleteAll();
+        this.customerRepository.deleteAll();
+    }
+
+    @Test
+    void sweepInChunksTest() throws Exception {
+        LocalDateTime expirationDate = LocalDateTime.now().minusDays(1);
+        for (int i = 1; i <= EXPIRED_SUBSCRIPTIONS + 1; i++) {
+            Customer customer = new Customer();
+            customer.setId("customer_" + i);
+            customer.setOrganizationId((long) i);
+            this.customerRepository.save(customer);
+
+            Subscription subscription = new Subscription();
+            subscription.setId("subscription_" + i);
+            // two subscriptions share an expiration date to cover the id tie-breaker of the keyset
+            subscription.setExpirationDate(i <= EXPIRED_SUBSCRIPTIONS ? expirationDate.plusMinutes(i / 2) : LocalDateTime.now().plusDays(1));
+            subscription.setCustomer(customer);
+            this.subscriptionRepository.saveAndFlush(subscription);
+        }
+
+        long sweeps = this.meterRegistry.get("payment.expiration.sweep").tag("mode", "scan").timer().count();
+        double deactivated = this.meterRegistry.get("payment.expiration.deactivated").counter().count();
+
+        int expired = this.sweepService.sweep(LocalDateTime.now());
+        assertThat(expired).isEqualTo(EXPIRED_SUBSCRIPTIONS);
+        assertThat(this.meterRegistry.get("payment.expiration.sweep").tag("mode", "scan").timer().count()).isEqualTo(sweeps + 1);
+        assertThat(this.meterRegistry.get("payment.expiration.deactivated").counter().count()).isEqualTo(deactivated + EXPIRED_SUBSCRIPTIONS);
+
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        Set<Long> organizationIds = new HashSet<>();
+        for (int i = 0; i < EXPIRED_SUBSCRIPTIONS; i++) {
+            ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+            assertThat(message).isNotNull();
+            ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+            assertThat(eventResult.getValue().isActive()).isFalse();
+            organizationIds.add(eventResult.getValue().getOrganizationId());
+        }
+        assertThat(organizationIds).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+}
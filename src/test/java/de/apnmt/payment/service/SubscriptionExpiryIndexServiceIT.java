@@ -0,0 +1,138 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.k8s.common.test.AbstractEventSenderIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.repository.CustomerRepository;
+import de.apnmt.payment.common.repository.SubscriptionRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestPropertySource(
+    properties = {
+        "application.expiration.index.enabled=true",
+        "application.expiration.index.resolution-ms=100",
+        "application.expiration.index.tick-ms=3600000",
+    }
+)
+class SubscriptionExpiryIndexServiceIT extends AbstractEventSenderIT {
+
+    @Autowired
+    private SubscriptionExpiryIndexService indexService;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Override
+    public String getTopic() {
+        return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+    }
+
+    @BeforeEach
+    public void initTest() {
+        this.subscriptionRepository.deleteAll();
+        this.customerRepository.deleteAll();
+    }
+
+    @Test
+    void fireDueSubscriptionsTest() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        this.createSubscription(1L, now.plusSeconds(1));
+        Subscription renewed = this.createSubscription(2L, now.plusSeconds(1));
+        this.createSubscription(3L, now.plusDays(1));
+        assertThat(this.indexService.size()).isEqualTo(3);
+
+        renewed.setExpirationDate(now.plusDays(30));
+        this.subscriptionRepository.saveAndFlush(renewed);
+        assertThat(this.indexService.size()).isEqualTo(3);
+
+        assertThat(this.indexService.fireDue(now)).isZero();
+        assertThat(this.indexService.fireDue(now.plusSeconds(2))).isEqualTo(1);
+        assertThat(this.indexService.size()).isEqualTo(2);
+
+        ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+        assertThat(message).isNotNull();
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+        assertThat(eventResult.getValue().getOrganizationId()).isEqualTo(1L);
+        assertThat(eventResult.getValue().isActive()).isFalse();
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void reloadSweepsSubscriptionsExpiredSinceThePreviousReloadTest() throws Exception {
+        this.indexService.reload();
+        this.createSubscription(4L, LocalDateTime.now().minusHours(1));
+        this.createSubscription(5L, LocalDateTime.now().plusNanos(200_000_000));
+        this.createSubscription(6L, LocalDateTime.now().plusDays(1));
+        Thread.sleep(300);
+
+        this.indexService.reload();
+
+        ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+        assertThat(message).isNotNull();
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+        assertThat(eventResult.getValue().getOrganizationId()).isEqualTo(5L);
+        assertThat(eventResult.getValue().isActive()).isFalse();
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+        // the next reload does not sweep them again
+        this.indexService.reload();
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void reloadSkipsSubscriptionsDeactivatedByTheIndexTest() throws Exception {
+        this.indexService.reload();
+        LocalDateTime expirationDate = LocalDateTime.now().plusNanos(200_000_000);
+        this.createSubscription(7L, expirationDate);
+        Thread.sleep(300);
+
+        assertThat(this.indexService.fireDue(LocalDateTime.now())).isEqualTo(1);
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNotNull();
+
+        this.indexService.reload();
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private Subscription createSubscription(Long organizationId, LocalDateTime expirationDate) {
+        Customer customer = new Customer();
+        customer.setId("customer_" + organizationId);
+        customer.setOrganizationId(organizationId);
+        this.customerRepository.save(customer);
+
+        Subscription subscription = new Subscription();
+        subscription.setId("subscription_" + organizationId);
+        subscription.setExpirationDate(expirationDate);
+        subscription.setCustomer(customer);
+        return this.subscriptionRepository.saveAndFlush(subscription);
+    }
+
+}
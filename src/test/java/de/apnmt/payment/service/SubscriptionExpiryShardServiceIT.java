@@ -0,0 +1,106 @@
+package de.apnmt.payment.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.repository.CustomerRepository;
+import de.apnmt.payment.common.repository.SubscriptionRepository;
+import de.apnmt.payment.domain.SubscriptionExpiryShard;
+import de.apnmt.payment.repository.SubscriptionExpiryShardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DirtiesContext
+@TestPropertySource(properties = {
+    "application.expiration.chunk-size=2",
+    "application.expiration.sharding.enabled=true",
+    "application.expiration.sharding.shard-count=8",
+    "application.expiration.sharding.heartbeat-interval-ms=3600000"
+})
+class SubscriptionExpiryShardServiceIT {
+
+    private static final int SHARD_COUNT = 8;
+
+    @Autowired
+    private SubscriptionExpiryShardService subscriptionExpiryShardService;
+
+    @Autowired
+    private SubscriptionExpiryShardRepository subscriptionExpiryShardRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    public void initTest() {
+        this.subscriptionExpiryShardRepository.deleteAll();
+        this.subscriptionRepository.deleteAll();
+        this.customerRepository.deleteAll();
+        this.customer = new Customer();
+        this.customer.setId("customer_1");
+        this.customer.setOrganizationId(1L);
+        this.customerRepository.save(this.customer);
+    }
+
+    @Test
+    void writingSubscriptionWritesItsShard() {
+        LocalDateTime expirationDate = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Subscription subscription = this.createSubscription("subscription_1", expirationDate);
+
+        Optional<SubscriptionExpiryShard> shard = this.subscriptionExpiryShardRepository.findById(subscription.getId());
+        assertThat(shard).isPresent();
+        assertThat(shard.get().getShard()).isEqualTo(ShardAssignment.shardOf(subscription.getId(), SHARD_COUNT));
+        assertThat(shard.get().getShardCount()).isEqualTo(SHARD_COUNT);
+        assertThat(shard.get().getExpirationDate()).isEqualTo(expirationDate);
+
+        subscription.setExpirationDate(expirationDate.plusDays(1));
+        this.subscriptionRepository.saveAndFlush(subscription);
+        assertThat(this.subscriptionExpiryShardRepository.findById(subscription.getId()).get().getExpirationDate()).isEqualTo(expirationDate.plusDays(1));
+
+        this.subscriptionRepository.delete(subscription);
+        assertThat(this.subscriptionExpiryShardRepository.findById(subscription.getId())).isEmpty();
+    }
+
+    @Test
+    void catchUpWritesMissingAndOutdatedShards() {
+        LocalDateTime expirationDate = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 1; i <= 5; i++) {
+            this.createSubscription("subscription_" + i, expirationDate);
+        }
+        this.subscriptionExpiryShardRepository.deleteById("subscription_1");
+        this.subscriptionExpiryShardRepository.deleteById("subscription_2");
+        this.subscriptionExpiryShardRepository.deleteById("subscription_3");
+        this.subscriptionExpiryShardRepository.save(this.subscriptionExpiryShardRepository.findById("subscription_4").get().shardCount(SHARD_COUNT * 2));
+
+        assertThat(this.subscriptionExpiryShardService.catchUp()).isEqualTo(4);
+        assertThat(this.subscriptionExpiryShardRepository.findAll())
+            .hasSize(5)
+            .allSatisfy(shard -> {
+                assertThat(shard.getShardCount()).isEqualTo(SHARD_COUNT);
+                assertThat(shard.getShard()).isEqualTo(ShardAssignment.shardOf(shard.getSubscriptionId(), SHARD_COUNT));
+                assertThat(shard.getExpirationDate()).isEqualTo(expirationDate);
+            });
+        assertThat(this.subscriptionExpiryShardService.catchUp()).isZero();
+    }
+
+    private Subscription createSubscription(String id, LocalDateTime expirationDate) {
+        Subscription subscription = new Subscription();
+        subscription.setId(id);
+        subscription.setExpirationDate(expirationDate);
+        subscription.setCustomer(this.customer);
+        return this.subscriptionRepository.saveAndFlush(subscription);
+    }
+}
@@ -0,0 +1,115 @@
+package de.apnmt.payment.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.apnmt.payment.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookProcessingStageTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final WebhookProcessingStage stage = new WebhookProcessingStage(new ApplicationProperties(), this.meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        this.stage.shutdown();
+    }
+
+    @Test
+    void runsLaneInOrderOneAtATime() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            int task = i;
+            this.execute("sub_1", "customer.subscription.updated#0", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                order.add(task);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(maxRunning).hasValue(1);
+        this.awaitNoLanes();
+    }
+
+    @Test
+    void runsLanesInParallel() throws Exception {
+        CountDownLatch otherLaneRan = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        this.execute("sub_1", "invoice.payment_succeeded#0", () -> {
+            if (await(otherLaneRan)) {
+                done.countDown();
+            }
+        });
+        this.execute("sub_2", "invoice.payment_succeeded#0", otherLaneRan::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void coalescesWaitingWorkOfSameType() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        this.execute("sub_1", "invoice.payment_succeeded#0", () -> {
+            started.countDown();
+            await(release);
+            runs.incrementAndGet();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // the first two wait behind the running one, the third is redundant to the first
+        this.execute("sub_1", "invoice.payment_succeeded#0", runs::incrementAndGet);
+        this.execute("sub_1", "invoice.created#0", runs::incrementAndGet);
+        this.execute("sub_1", "invoice.payment_succeeded#0", runs::incrementAndGet);
+        release.countDown();
+
+        this.awaitNoLanes();
+        assertThat(runs).hasValue(3);
+        assertThat(this.meterRegistry.get("payment.webhook.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    private void execute(String lane, String taskKey, Runnable task) {
+        assertThat(this.stage.tryReserve()).isTrue();
+        this.stage.execute(task, lane, taskKey);
+    }
+
+    private void awaitNoLanes() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.stage.laneCount() > 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
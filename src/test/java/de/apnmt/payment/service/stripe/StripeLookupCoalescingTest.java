@@ -0,0 +1,165 @@
+package de.apnmt.payment.service.stripe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.stripe.model.Customer;
+import de.apnmt.payment.aop.stripe.StripeRateLimitAspect;
+import de.apnmt.payment.config.ApplicationProperties;
+import de.apnmt.payment.service.StripeCallPriority;
+import de.apnmt.payment.service.StripeRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripeLookupCoalescingTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Lookups target = new Lookups();
+
+    private final Lookups proxy = this.proxyOf(this.target);
+
+    @Test
+    void concurrentLookupsShareOneCall() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> this.proxy.getSubscription("sub_1")));
+            }
+            // the first lookup blocks until the others joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (this.meterRegistry.get("payment.stripe.coalesced").counter().count() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            this.target.release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("sub_1#1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(this.target.calls).hasValue(1);
+        assertThat(this.meterRegistry.get("payment.stripe.coalesced").counter().count()).isEqualTo(3);
+
+        // a later lookup starts a new call
+        assertThat(this.proxy.getSubscription("sub_1")).isEqualTo("sub_1#2");
+    }
+
+    @Test
+    void webhookLookupDoesNotJoinReadInFlight() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> read = executor.submit(() -> {
+                try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.READ)) {
+                    return this.proxy.getSubscription("sub_1");
+                }
+            });
+            this.awaitCalls(1);
+
+            try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.WEBHOOK)) {
+                assertThat(this.proxy.getSubscription("sub_1")).isEqualTo("sub_1#2");
+            }
+            this.target.release.countDown();
+            assertThat(read.get(5, TimeUnit.SECONDS)).isEqualTo("sub_1#1");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(this.meterRegistry.get("payment.stripe.coalesced").counter().count()).isZero();
+    }
+
+    @Test
+    void lookupDoesNotJoinLookupOfOtherPriority() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> bulk = executor.submit(() -> {
+                try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.BULK)) {
+                    return this.proxy.getSubscription("sub_1");
+                }
+            });
+            this.awaitCalls(1);
+
+            try (StripeCallPriority.Scope scope = StripeCallPriority.enter(StripeCallPriority.READ)) {
+                assertThat(this.proxy.getSubscription("sub_1")).isEqualTo("sub_1#2");
+            }
+            this.target.release.countDown();
+            assertThat(bulk.get(5, TimeUnit.SECONDS)).isEqualTo("sub_1#1");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalescedLookupsGetCopies() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Customer> leader = executor.submit(() -> this.proxy.getCustomer("cus_1"));
+            this.awaitCalls(1);
+            Future<Customer> follower = executor.submit(() -> this.proxy.getCustomer("cus_1"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (this.meterRegistry.get("payment.stripe.coalesced").counter().count() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            this.target.release.countDown();
+
+            Customer leaderResult = leader.get(5, TimeUnit.SECONDS);
+            Customer followerResult = follower.get(5, TimeUnit.SECONDS);
+            assertThat(followerResult).isNotSameAs(leaderResult);
+            assertThat(followerResult.getId()).isEqualTo("cus_1");
+            assertThat(followerResult.getEmail()).isEqualTo("cus_1@example.com");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(this.target.calls).hasValue(1);
+    }
+
+    private void awaitCalls(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.target.calls.get() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(this.target.calls).hasValue(calls);
+    }
+
+    private Lookups proxyOf(Lookups lookups) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(lookups);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new StripeRateLimitAspect(new StripeRateLimiter(new ApplicationProperties(), this.meterRegistry), this.meterRegistry));
+        return factory.getProxy();
+    }
+}
+
+/**
+ * Stand-in for a Stripe service, matched by the pointcut of the aspect through its package.
+ */
+class Lookups {
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    public String getSubscription(String id) throws InterruptedException {
+        int call = this.calls.incrementAndGet();
+        // only the first call blocks, later calls return right away
+        if (call == 1) {
+            this.release.await(5, TimeUnit.SECONDS);
+        }
+        return id + "#" + call;
+    }
+
+    public Customer getCustomer(String id) throws InterruptedException {
+        this.getSubscription(id);
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setEmail(id + "@example.com");
+        return customer;
+    }
+}
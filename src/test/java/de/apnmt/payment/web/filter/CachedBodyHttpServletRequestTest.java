@@ -0,0 +1,73 @@
+package de.apnmt.payment.web.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedBodyHttpServletRequestTest {
+
+    @Test
+    void readListenerReadsTheCachedBody() {
+        byte[] body = "{\"id\":\"evt_1\"}".getBytes(StandardCharsets.UTF_8);
+        ServletInputStream in = new CachedBodyHttpServletRequest(new MockHttpServletRequest(), body).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> calls = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                calls.add("onDataAvailable");
+                byte[] buffer = new byte[4];
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(buffer, 0, in.read(buffer));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("onAllDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.add("onError");
+            }
+        });
+
+        assertThat(calls).containsExactly("onDataAvailable", "onAllDataRead");
+        assertThat(read.toByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void readListenerOfAnEmptyBodyIsDoneRightAway() {
+        ServletInputStream in = new CachedBodyHttpServletRequest(new MockHttpServletRequest(), new byte[0]).getInputStream();
+        List<String> calls = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                calls.add("onDataAvailable");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                calls.add("onAllDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                calls.add("onError");
+            }
+        });
+
+        assertThat(calls).containsExactly("onAllDataRead");
+    }
+}
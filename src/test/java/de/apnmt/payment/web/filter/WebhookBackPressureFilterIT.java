@@ -0,0 +1,80 @@
+package de.apnmt.payment.web.filter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.apnmt.common.TopicConstants;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.service.WebhookDispatchContext;
+import de.apnmt.payment.service.WebhookProcessingStage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestPropertySource(properties = {"application.webhook.concurrency=1", "application.webhook.queue-capacity=0", "application.webhook.retry-after-seconds=7"})
+class WebhookBackPressureFilterIT {
+
+    @Autowired
+    private WebhookProcessingStage stage;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @Test
+    void saturatedStageRejectsWebhookTest() throws Exception {
+        this.reserve();
+        try {
+            this.restMockMvc.perform(post("/api/stripe/events").contentType(MediaType.TEXT_PLAIN).content("{}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+        } finally {
+            this.stage.release();
+        }
+    }
+
+    @Test
+    void webhookWorkRunsOnStageTest() throws Exception {
+        this.reserve();
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        WebhookDispatchContext context = WebhookDispatchContext.open();
+        try {
+            this.taskExecutor.execute(() -> thread.complete(Thread.currentThread().getName()));
+        } finally {
+            assertThat(context.close()).isFalse();
+        }
+        assertThat(thread.get(5, TimeUnit.SECONDS)).startsWith("paymentservice-webhook-");
+
+        CompletableFuture<String> sharedThread = new CompletableFuture<>();
+        this.taskExecutor.execute(() -> sharedThread.complete(Thread.currentThread().getName()));
+        assertThat(sharedThread.get(5, TimeUnit.SECONDS)).startsWith("paymentservice-task-");
+    }
+
+    private void reserve() throws InterruptedException {
+        // the slot of a previous test is given back right after its task completed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!this.stage.tryReserve()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package de.apnmt.payment.web.rest;
+
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link CatalogResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class CatalogResourceIT extends CommonIT {
+
+    private static final String ENTITY_API_URL = "/api/catalog";
+
+    @Autowired
+    private MockMvc restCatalogMockMvc;
+
+    private Price price;
+
+    @BeforeEach
+    public void initTest() {
+        Product product = this.productRepository.save(TestUtil.createProduct());
+        this.price = TestUtil.createPrice();
+        this.price.setProduct(product);
+        this.price = this.priceRepository.save(this.price);
+    }
+
+    @Test
+    void getCatalog() throws Exception {
+        this.restCatalogMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[0].id").value(TestUtil.DEFAULT_PRODUCT_ID))
+            .andExpect(jsonPath("$.[0].prices.[0].id").value(TestUtil.DEFAULT_PRICE_ID));
+    }
+
+    @Test
+    void getCatalogNotModified() throws Exception {
+        String eTag = this.restCatalogMockMvc.perform(get(ENTITY_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.restCatalogMockMvc
+            .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getCatalogAfterChange() throws Exception {
+        String eTag = this.restCatalogMockMvc.perform(get(ENTITY_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.price.setAmount(this.price.getAmount() + 100);
+        this.priceRepository.save(this.price);
+
+        String changedETag = this.restCatalogMockMvc
+            .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].prices.[0].amount").value(this.price.getAmount()))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(changedETag).isNotEqualTo(eTag);
+    }
+}
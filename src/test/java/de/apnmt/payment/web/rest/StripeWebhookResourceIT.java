@@ -31,6 +31,7 @@ import de.apnmt.payment.common.repository.ProductRepository;
 import de.apnmt.payment.common.repository.SubscriptionRepository;
 import de.apnmt.payment.common.service.StripeWebhookService;
 import de.apnmt.payment.common.service.stripe.SubscriptionStripeService;
+import de.apnmt.payment.repository.ProcessedWebhookEventRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,16 +42,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -79,6 +86,9 @@ class StripeWebhookResourceIT extends AbstractEventSenderIT {
     @MockBean
     private SubscriptionStripeService subscriptionStripeService;
 
+    @SpyBean
+    private ProcessedWebhookEventRepository processedWebhookEventRepository;
+
     @InjectMocks
     @Autowired
     private StripeWebhookService stripeWebhookService;
@@ -146,6 +156,55 @@ class StripeWebhookResourceIT extends AbstractEventSenderIT {
         Assertions.assertThat(eventResult.getValue().isActive()).isTrue();
     }
 
+    @Test
+    void handleDuplicateEventTest() throws Exception {
+        Customer customer = TestUtil.createCustomer();
+        this.customerRepository.save(customer);
+
+        Subscription subscription = new Subscription();
+        subscription.setId("subscription_2");
+        subscription.setExpirationDate(LocalDateTime.now().plusHours(1));
+        subscription.setCustomer(customer);
+
+        this.subscriptionRepository.saveAndFlush(subscription);
+        Event event = this.createEvent(subscription);
+        event.setId("evt_duplicate_1");
+
+        this.restSubscriptionMockMvc.perform(post("/api/stripe/events").contentType(MediaType.TEXT_PLAIN).content(event.toJson())).andExpect(status().isNoContent());
+        this.restSubscriptionMockMvc.perform(post("/api/stripe/events").contentType(MediaType.TEXT_PLAIN).content(event.toJson())).andExpect(status().isNoContent());
+
+        verify(this.subscriptionStripeService, times(1)).getSubscription(any());
+        Assertions.assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNotNull();
+        Assertions.assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void handleRedeliveryAfterFailedDeduplicationLookupTest() throws Exception {
+        Customer customer = TestUtil.createCustomer();
+        this.customerRepository.save(customer);
+
+        Subscription subscription = new Subscription();
+        subscription.setId("subscription_3");
+        subscription.setExpirationDate(LocalDateTime.now().plusHours(1));
+        subscription.setCustomer(customer);
+
+        this.subscriptionRepository.saveAndFlush(subscription);
+        Event event = this.createEvent(subscription);
+        event.setId("evt_lookup_failure_1");
+        doThrow(new DataAccessResourceFailureException("Connection refused")).doReturn(false)
+            .when(this.processedWebhookEventRepository).existsById(event.getId());
+
+        assertThatThrownBy(() -> this.restSubscriptionMockMvc.perform(post("/api/stripe/events").contentType(MediaType.TEXT_PLAIN).content(event.toJson())))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(this.subscriptionStripeService, times(0)).getSubscription(any());
+
+        this.restSubscriptionMockMvc.perform(post("/api/stripe/events").contentType(MediaType.TEXT_PLAIN).content(event.toJson())).andExpect(status().isNoContent());
+
+        verify(this.subscriptionStripeService, times(1)).getSubscription(any());
+        Assertions.assertThat(this.processedWebhookEventRepository.findById(event.getId())).isPresent();
+        Assertions.assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNotNull();
+    }
+
     private Event createEvent(Subscription subscription) {
         Event event = new Event();
         event.setApiVersion("2020-08-27");
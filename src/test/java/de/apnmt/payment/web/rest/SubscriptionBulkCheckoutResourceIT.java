@@ -0,0 +1,231 @@
+package de.apnmt.payment.web.rest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.model.SubscriptionItemCollection;
+import de.apnmt.common.TopicConstants;
+import de.apnmt.common.event.ApnmtEvent;
+import de.apnmt.common.event.value.OrganizationActivationEventDTO;
+import de.apnmt.k8s.common.test.AbstractEventSenderIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.repository.CustomerRepository;
+import de.apnmt.payment.common.repository.PriceRepository;
+import de.apnmt.payment.common.repository.ProductRepository;
+import de.apnmt.payment.common.repository.SubscriptionItemRepository;
+import de.apnmt.payment.common.repository.SubscriptionRepository;
+import de.apnmt.payment.service.dto.BulkCheckoutRequestDTO;
+import de.apnmt.payment.service.stripe.BulkCheckoutStripeService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link SubscriptionBulkCheckoutResource} REST controller.
+ */
+@EnableKafka
+@EmbeddedKafka(ports = {58255}, topics = {TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC})
+@IntegrationTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {"application.bulk-checkout.max-items=5", "spring.jpa.properties.hibernate.jdbc.batch_size=2"})
+class SubscriptionBulkCheckoutResourceIT extends AbstractEventSenderIT {
+
+    private static final String ENTITY_API_URL_BULK_CHECKOUT = "/api/subscriptions/checkout/bulk";
+
+    @Autowired
+    private SubscriptionItemRepository subscriptionItemRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc restSubscriptionMockMvc;
+
+    @MockBean
+    private BulkCheckoutStripeService bulkCheckoutStripeService;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Override
+    public String getTopic() {
+        return TopicConstants.ORGANIZATION_ACTIVATION_CHANGED_TOPIC;
+    }
+
+    @BeforeEach
+    public void initTest() throws Exception {
+        this.subscriptionItemRepository.deleteAll();
+        this.subscriptionRepository.deleteAll();
+        this.customerRepository.deleteAll();
+        this.priceRepository.deleteAll();
+        this.productRepository.deleteAll();
+
+        Product product = TestUtil.createProduct();
+        this.productRepository.save(product);
+        Price price = TestUtil.createPrice();
+        price.setProduct(product);
+        this.priceRepository.save(price);
+        for (long i = 1; i <= 4; i++) {
+            Customer customer = new Customer();
+            customer.setId("customer_" + i);
+            customer.setOrganizationId(i);
+            this.customerRepository.save(customer);
+        }
+
+        when(this.bulkCheckoutStripeService.createSubscription(any(), any())).thenAnswer(invocation ->
+            stripeSubscription("subscription_" + this.sequence.incrementAndGet(), invocation.getArgument(1)));
+    }
+
+    @Test
+    void bulkCheckout() throws Exception {
+        doThrow(new InvalidRequestException("No such PaymentMethod", null, null, null, 400, null))
+            .when(this.bulkCheckoutStripeService).attachPaymentMethod(eq("customer_3"), any());
+
+        List<BulkCheckoutRequestDTO> requests = List.of(
+            request("customer_1", 2),
+            request("customer_2", 1),
+            request("customer_3", 1),
+            request("customer_unknown", 1),
+            request("customer_4", 3)
+        );
+
+        this.restSubscriptionMockMvc.perform(post(ENTITY_API_URL_BULK_CHECKOUT).contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(requests)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(5))
+            .andExpect(jsonPath("$[0].status").value("CREATED"))
+            .andExpect(jsonPath("$[1].status").value("CREATED"))
+            .andExpect(jsonPath("$[2].status").value("FAILED"))
+            .andExpect(jsonPath("$[2].error").value("No such PaymentMethod"))
+            .andExpect(jsonPath("$[3].status").value("FAILED"))
+            .andExpect(jsonPath("$[3].error").value("Unknown customer"))
+            .andExpect(jsonPath("$[4].status").value("CREATED"))
+            .andExpect(jsonPath("$[4].index").value(4));
+
+        List<Subscription> subscriptions = this.subscriptionRepository.findAll();
+        assertThat(subscriptions).hasSize(3);
+        List<SubscriptionItem> items = this.subscriptionItemRepository.findAll();
+        assertThat(items).hasSize(3);
+        assertThat(items).extracting(SubscriptionItem::getQuantity).containsExactlyInAnyOrder(2, 1, 3);
+
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        Set<Long> organizationIds = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+            assertThat(message).isNotNull();
+            ApnmtEvent<OrganizationActivationEventDTO> eventResult = this.objectMapper.readValue(message.value().toString(), eventType);
+            assertThat(eventResult.getValue().isActive()).isTrue();
+            organizationIds.add(eventResult.getValue().getOrganizationId());
+        }
+        assertThat(organizationIds).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void bulkCheckoutStoresTheOthersWhenOneSubscriptionCannotBeStored() throws Exception {
+        Subscription existing = new Subscription();
+        existing.setId("subscription_existing");
+        existing.setCustomer(this.customerRepository.findById("customer_4").get());
+        this.subscriptionRepository.saveAndFlush(existing);
+        when(this.bulkCheckoutStripeService.createSubscription(eq("customer_2"), any())).thenAnswer(invocation ->
+            stripeSubscription("subscription_existing", invocation.getArgument(1)));
+
+        List<BulkCheckoutRequestDTO> requests = List.of(request("customer_1", 2), request("customer_2", 1));
+
+        this.restSubscriptionMockMvc.perform(post(ENTITY_API_URL_BULK_CHECKOUT).contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(requests)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("CREATED"))
+            .andExpect(jsonPath("$[1].status").value("FAILED"));
+
+        assertThat(this.subscriptionRepository.findAll()).extracting(Subscription::getId)
+            .containsExactlyInAnyOrder("subscription_existing", "subscription_1");
+        assertThat(this.subscriptionItemRepository.findAll()).hasSize(1);
+
+        ConsumerRecord<String, Object> message = this.records.poll(500, TimeUnit.MILLISECONDS);
+        assertThat(message).isNotNull();
+        TypeReference<ApnmtEvent<OrganizationActivationEventDTO>> eventType = new TypeReference<>() {
+        };
+        assertThat(this.objectMapper.readValue(message.value().toString(), eventType).getValue().getOrganizationId()).isEqualTo(1L);
+        assertThat(this.records.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void bulkCheckoutWithTooManyItems() throws Exception {
+        List<BulkCheckoutRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(request("customer_1", 1));
+        }
+
+        this.restSubscriptionMockMvc.perform(post(ENTITY_API_URL_BULK_CHECKOUT).contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(requests)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(this.subscriptionRepository.findAll()).isEmpty();
+    }
+
+    private static com.stripe.model.Subscription stripeSubscription(String id, List<BulkCheckoutRequestDTO.Item> items) {
+        com.stripe.model.Subscription subscription = new com.stripe.model.Subscription();
+        subscription.setId(id);
+        List<com.stripe.model.SubscriptionItem> data = new ArrayList<>();
+        for (BulkCheckoutRequestDTO.Item item : items) {
+            com.stripe.model.SubscriptionItem subscriptionItem = new com.stripe.model.SubscriptionItem();
+            subscriptionItem.setId(subscription.getId() + "_item_" + data.size());
+            subscriptionItem.setQuantity(item.getQuantity().longValue());
+            com.stripe.model.Price stripePrice = new com.stripe.model.Price();
+            stripePrice.setId(item.getPriceId());
+            subscriptionItem.setPrice(stripePrice);
+            data.add(subscriptionItem);
+        }
+        SubscriptionItemCollection collection = new SubscriptionItemCollection();
+        collection.setData(data);
+        subscription.setItems(collection);
+        return subscription;
+    }
+
+    private static BulkCheckoutRequestDTO request(String customerId, int quantity) {
+        BulkCheckoutRequestDTO.Item item = new BulkCheckoutRequestDTO.Item();
+        item.setPriceId(TestUtil.DEFAULT_PRICE_ID);
+        item.setQuantity(quantity);
+        BulkCheckoutRequestDTO request = new BulkCheckoutRequestDTO();
+        request.setCustomerId(customerId);
+        request.setPaymentMethod("pm_" + customerId);
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,127 @@
+package de.apnmt.payment.web.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link SubscriptionExportResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class SubscriptionExportResourceIT extends CommonIT {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.of(2021, 12, 24, 0, 0, 11, 0);
+
+    private static final Long ORGANIZATION_ID = 7L;
+
+    private static final String ENTITY_API_URL = "/api/subscriptions/export";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc restSubscriptionMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        Customer customer = TestUtil.createCustomer();
+        customer.setOrganizationId(ORGANIZATION_ID);
+        this.customerRepository.save(customer);
+
+        Product product = TestUtil.createProduct();
+        this.productRepository.save(product);
+
+        Price price = TestUtil.createPrice();
+        price.setProduct(product);
+        this.priceRepository.save(price);
+
+        SubscriptionItem subscriptionItem = TestUtil.createSubscriptionItem(price);
+        subscriptionItem.setId("subscriptionItem_1");
+
+        Subscription subscription = new Subscription().expirationDate(EXPIRATION_DATE);
+        subscription.setId("subscription_1");
+        subscription.addSubscriptionItem(subscriptionItem);
+        subscription.setCustomer(customer);
+        this.subscriptionRepository.saveAndFlush(subscription);
+
+        Subscription withoutItems = new Subscription().expirationDate(EXPIRATION_DATE);
+        withoutItems.setId("subscription_2");
+        this.subscriptionRepository.saveAndFlush(withoutItems);
+    }
+
+    @Test
+    void exportNdjson() throws Exception {
+        MockHttpServletResponse response = this.restSubscriptionMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse();
+        String[] lines = gunzip(response.getContentAsByteArray()).split("\n");
+
+        assertThat(lines).hasSize(2);
+        JsonNode first = this.objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asText()).isEqualTo("subscription_1");
+        assertThat(first.get("expirationDate").asText()).isEqualTo(EXPIRATION_DATE.toString());
+        assertThat(first.get("organizationId").asLong()).isEqualTo(ORGANIZATION_ID);
+        assertThat(first.get("items")).hasSize(1);
+        assertThat(first.get("items").get(0).get("priceId").asText()).isEqualTo(TestUtil.DEFAULT_PRICE_ID);
+        assertThat(first.get("items").get(0).get("amount").asLong()).isEqualTo(5000L);
+        JsonNode second = this.objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asText()).isEqualTo("subscription_2");
+        assertThat(second.get("organizationId").isNull()).isTrue();
+        assertThat(second.get("items")).isEmpty();
+    }
+
+    @Test
+    void exportCsv() throws Exception {
+        MockHttpServletResponse response = this.restSubscriptionMockMvc
+            .perform(get(ENTITY_API_URL + "?format=csv"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse();
+        String[] lines = gunzip(response.getContentAsByteArray()).split("\n");
+
+        assertThat(lines).containsExactly(
+            "subscriptionId,expirationDate,organizationId,itemId,quantity,priceId,amount,currency,interval",
+            "subscription_1," + EXPIRATION_DATE + "," + ORGANIZATION_ID + ",subscriptionItem_1,1," + TestUtil.DEFAULT_PRICE_ID + ",5000,eur,day",
+            "subscription_2," + EXPIRATION_DATE + ",,,,,,,"
+        );
+    }
+
+    @Test
+    void exportUnsupportedFormat() throws Exception {
+        this.restSubscriptionMockMvc.perform(get(ENTITY_API_URL + "?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    private static String gunzip(byte[] content) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.apnmt.payment.web.rest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.StatementCounter;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.web.rest.SubscriptionResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the number of statements of the read endpoints of the {@link SubscriptionResource} REST
+ * controller, which must not depend on the number of subscriptions and items.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class SubscriptionResourceStatementsIT extends CommonIT {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.of(2021, 12, 24, 0, 0, 11, 0);
+
+    private static final String ENTITY_API_URL_CUSTOMER_ID = "/api/subscriptions/customer/{id}";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restSubscriptionMockMvc;
+
+    private Customer customer;
+
+    private Product product;
+
+    @BeforeEach
+    public void initTest() {
+        this.customer = this.customerRepository.save(TestUtil.createCustomer());
+        this.product = this.productRepository.save(TestUtil.createProduct());
+    }
+
+    @Test
+    void getSubscriptionsOfCustomerWithFixedStatementCount() throws Exception {
+        this.createSubscriptions(1, 1);
+        long single = this.countStatementsOfCustomer(1);
+
+        this.subscriptionItemRepository.deleteAll();
+        this.subscriptionRepository.deleteAll();
+        this.createSubscriptions(5, 3);
+        long many = this.countStatementsOfCustomer(5);
+
+        assertThat(many).isEqualTo(single);
+    }
+
+    private void createSubscriptions(int subscriptions, int itemsPerSubscription) {
+        List<Price> prices = new ArrayList<>();
+        for (int i = 0; i < itemsPerSubscription; i++) {
+            Price price = TestUtil.createPrice();
+            price.setId("price_" + i);
+            price.setProduct(this.product);
+            prices.add(this.priceRepository.save(price));
+        }
+        for (int i = 0; i < subscriptions; i++) {
+            Subscription subscription = new Subscription().expirationDate(EXPIRATION_DATE.plusDays(i));
+            subscription.setId("subscription_" + i);
+            subscription.setCustomer(this.customer);
+            for (Price price : prices) {
+                SubscriptionItem subscriptionItem = TestUtil.createSubscriptionItem(price);
+                subscriptionItem.setId(subscription.getId() + "_" + price.getId());
+                subscription.addSubscriptionItem(subscriptionItem);
+            }
+            this.subscriptionRepository.save(subscription);
+        }
+    }
+
+    private long countStatementsOfCustomer(int subscriptions) throws Exception {
+        try (StatementCounter counter = StatementCounter.start(this.entityManagerFactory)) {
+            this.restSubscriptionMockMvc.perform(get(ENTITY_API_URL_CUSTOMER_ID, this.customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(subscriptions));
+            return counter.count();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.apnmt.payment.web.rest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.apnmt.payment.CommonIT;
+import de.apnmt.payment.IntegrationTest;
+import de.apnmt.payment.StatementCounter;
+import de.apnmt.payment.common.domain.Customer;
+import de.apnmt.payment.common.domain.Price;
+import de.apnmt.payment.common.domain.Product;
+import de.apnmt.payment.common.domain.Subscription;
+import de.apnmt.payment.common.domain.SubscriptionItem;
+import de.apnmt.payment.common.service.dto.SubscriptionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link SubscriptionSeekResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class SubscriptionSeekResourceIT extends CommonIT {
+
+    private static final LocalDateTime EXPIRATION_DATE = LocalDateTime.of(2021, 12, 24, 0, 0, 11, 0);
+
+    private static final String ENTITY_API_URL = "/api/subscriptions/seek";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restSubscriptionMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        // two subscriptions share each expiration date, the id breaks the tie
+        for (int i = 0; i < 5; i++) {
+            Subscription subscription = new Subscription().expirationDate(EXPIRATION_DATE.plusDays(i / 2));
+            subscription.setId("subscription_" + (4 - i));
+            this.subscriptionRepository.save(subscription);
+        }
+    }
+
+    @Test
+    void walkAllSubscriptions() throws Exception {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletResponse response = this.restSubscriptionMockMvc
+                .perform(cursor == null ? get(ENTITY_API_URL + "?size=2") : get(ENTITY_API_URL + "?size=2&cursor=" + cursor))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+            List<SubscriptionDTO> page = this.objectMapper.readValue(response.getContentAsByteArray(), new TypeReference<List<SubscriptionDTO>>() {
+            });
+            page.forEach(subscription -> ids.add(subscription.getId()));
+            cursor = response.getHeader(SubscriptionSeekResource.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).containsExactly("subscription_3", "subscription_4", "subscription_1", "subscription_2", "subscription_0");
+    }
+
+    @Test
+    void getSubscriptionsWithEstimatedCount() throws Exception {
+        this.restSubscriptionMockMvc
+            .perform(get(ENTITY_API_URL + "?size=10&count=true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(5))
+            .andExpect(header().string(SubscriptionSeekResource.ESTIMATED_COUNT_HEADER, "5"))
+            .andExpect(header().doesNotExist(SubscriptionSeekResource.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getSubscriptionsWithMalformedCursor() throws Exception {
+        this.restSubscriptionMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getSubscriptionsWithFixedStatementCount() throws Exception {
+        // keys of the undated and of the dated subscriptions, then the subscriptions with their graph
+        assertThat(this.countStatementsOfPage()).isEqualTo(3);
+
+        Customer customer = this.customerRepository.save(TestUtil.createCustomer());
+        Product product = this.productRepository.save(TestUtil.createProduct());
+        List<Price> prices = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Price price = TestUtil.createPrice();
+            price.setId("price_" + i);
+            price.setProduct(product);
+            prices.add(this.priceRepository.save(price));
+        }
+        this.subscriptionRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            Subscription subscription = new Subscription().expirationDate(EXPIRATION_DATE.plusDays(i));
+            subscription.setId("subscription_" + i);
+            subscription.setCustomer(customer);
+            for (Price price : prices) {
+                SubscriptionItem subscriptionItem = TestUtil.createSubscriptionItem(price);
+                subscriptionItem.setId(subscription.getId() + "_" + price.getId());
+                subscription.addSubscriptionItem(subscriptionItem);
+            }
+            this.subscriptionRepository.save(subscription);
+        }
+
+        assertThat(this.countStatementsOfPage()).isEqualTo(3);
+    }
+
+    private long countStatementsOfPage() throws Exception {
+        try (StatementCounter counter = StatementCounter.start(this.entityManagerFactory)) {
+            this.restSubscriptionMockMvc.perform(get(ENTITY_API_URL + "?size=10")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(5));
+            return counter.count();
+        }
+    }
+}